@@ -0,0 +1,20 @@
+// jmh-core is required through module-info.java, see gradle/modules.properties, and shares its version with the
+// annotation processor in gradle/libs.versions.toml.
+dependencies {
+  annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// Benchmarks are not part of the published library.
+tasks.withType<AbstractPublishToMaven>().configureEach {
+  enabled = false
+}
+
+// ./gradlew :ix-proxy-jmh:jmh -PjmhArgs="IxProxyDispatchBenchmark -f 1"
+tasks.register<JavaExec>("jmh") {
+  group = "benchmark"
+  description = "Runs the JMH benchmarks, reporting allocation rates through the GC profiler."
+  classpath = sourceSets.main.get().runtimeClasspath
+  mainClass = "org.openjdk.jmh.Main"
+  args("-prof", "gc")
+  args(providers.gradleProperty("jmhArgs").map { it.trim().split(Regex("\\s+")) }.getOrElse(listOf()))
+}
@@ -0,0 +1,8 @@
+module systems.glam.ix_proxy.jmh {
+  requires jmh.core;
+
+  requires systems.glam.ix_proxy;
+  requires systems.glam.ix_proxy.test.fixtures;
+
+  exports systems.glam.ix.proxy.jmh;
+}
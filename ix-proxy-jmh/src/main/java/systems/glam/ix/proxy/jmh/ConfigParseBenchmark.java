@@ -0,0 +1,84 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import software.sava.core.accounts.meta.AccountMeta;
+import systems.comodal.jsoniter.JsonIterator;
+import systems.glam.ix.proxy.ConfigLoader;
+import systems.glam.ix.proxy.IndexedAccountMeta;
+import systems.glam.ix.proxy.ProgramMapConfig;
+import systems.glam.ix.proxy.fixtures.MappingCorpusGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// Cold start config parsing over a [MappingCorpusGenerator] directory. Each operation parses the entire corpus, either
+/// from in-memory JSON on a single thread, or by loading the directory in parallel.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigParseBenchmark {
+
+  @Param({"2000"})
+  int numPrograms;
+
+  @Param({"32"})
+  int maxInstructionsPerProgram;
+
+  private Path configDirectory;
+  private ConfigLoader configLoader;
+  private List<byte[]> configsJson;
+
+  @Setup
+  public void setup() throws IOException {
+    this.configDirectory = Files.createTempDirectory("ix-proxy-configs");
+    new MappingCorpusGenerator(numPrograms, maxInstructionsPerProgram).writeConfigs(configDirectory, numPrograms);
+    this.configLoader = new ConfigLoader(configDirectory, null);
+    try (final var paths = Files.list(configDirectory)) {
+      final var configsJson = new ArrayList<byte[]>(numPrograms);
+      for (final var configFile : (Iterable<Path>) paths::iterator) {
+        configsJson.add(Files.readAllBytes(configFile));
+      }
+      this.configsJson = configsJson;
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (final var paths = Files.walk(configDirectory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+        try {
+          Files.delete(path);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  @Benchmark
+  public List<ProgramMapConfig> parseConfigs() {
+    final var accountMetaCache = new HashMap<AccountMeta, AccountMeta>(256);
+    final var indexedAccountMetaCache = new HashMap<IndexedAccountMeta, IndexedAccountMeta>(256);
+    final var configs = new ArrayList<ProgramMapConfig>(configsJson.size());
+    for (final byte[] json : configsJson) {
+      configs.add(ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, JsonIterator.parse(json)));
+    }
+    return configs;
+  }
+
+  @Benchmark
+  public List<ProgramMapConfig> loadLocalConfigs() {
+    return configLoader.loadLocalConfigs(ForkJoinPool.commonPool());
+  }
+}
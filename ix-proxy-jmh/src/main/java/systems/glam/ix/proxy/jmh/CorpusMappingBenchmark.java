@@ -0,0 +1,100 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+import systems.glam.ix.proxy.BoundTransactionMapper;
+import systems.glam.ix.proxy.MappingArena;
+import systems.glam.ix.proxy.ProgramMapConfig;
+import systems.glam.ix.proxy.TransactionMapper;
+import systems.glam.ix.proxy.fixtures.MappingCorpusGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static systems.glam.ix.proxy.jmh.MappingFixtures.*;
+
+/// Maps a stream of generated instructions and transactions against a [MappingCorpusGenerator] corpus, scaling the
+/// number of configured programs. Each operation maps the entire stream.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusMappingBenchmark {
+
+  private static final int NUM_INSTRUCTIONS = 4_096;
+  private static final int NUM_TRANSACTIONS = 512;
+
+  @Param({"100", "2000"})
+  int numPrograms;
+
+  @Param({"32"})
+  int maxInstructionsPerProgram;
+
+  @Param({"0.25"})
+  double unmappedRatio;
+
+  private TransactionMapper<AccountMeta[]> txMapper;
+  private BoundTransactionMapper<AccountMeta[]> boundMapper;
+  private AccountMeta[] runtimeAccounts;
+  private List<Instruction> instructions;
+  private List<Transaction> transactions;
+  private Instruction[] mappedInstructions;
+  private MappingArena arena;
+
+  @Setup
+  public void setup() {
+    final var generator = new MappingCorpusGenerator(numPrograms, maxInstructionsPerProgram);
+    final var configs = new ArrayList<ProgramMapConfig>(numPrograms);
+    for (final var json : generator.generateConfigs(numPrograms).values()) {
+      configs.add(parseConfig(json));
+    }
+    this.txMapper = TransactionMapper.createMapper(
+        INVOKED_PROXY_PROGRAM,
+        MappingCorpusGenerator.DYNAMIC_ACCOUNT_FACTORY,
+        configs
+    );
+    final var random = new Random(numPrograms);
+    this.runtimeAccounts = MappingCorpusGenerator.generateRuntimeAccounts(random);
+    this.instructions = List.of(MappingCorpusGenerator.generateInstructions(
+        random, configs, FEE_PAYER, NUM_INSTRUCTIONS, unmappedRatio
+    ));
+    this.transactions = MappingCorpusGenerator.generateTransactions(
+        random, configs, FEE_PAYER, NUM_TRANSACTIONS, 6, unmappedRatio
+    );
+    this.boundMapper = txMapper.bind(runtimeAccounts, FEE_PAYER);
+    this.mappedInstructions = new Instruction[NUM_INSTRUCTIONS];
+    this.arena = new MappingArena();
+  }
+
+  @Benchmark
+  public Instruction[] mapInstructions() {
+    return txMapper.mapInstructions(FEE_PAYER, runtimeAccounts, instructions);
+  }
+
+  @Benchmark
+  public Instruction[] mapInstructionsArena() {
+    arena.reset();
+    txMapper.mapInstructions(FEE_PAYER, runtimeAccounts, instructions, mappedInstructions, arena);
+    return mappedInstructions;
+  }
+
+  @Benchmark
+  public Instruction[] mapInstructionsBound() {
+    return boundMapper.mapInstructions(instructions);
+  }
+
+  @Benchmark
+  public Transaction mapTransactions() {
+    Transaction last = null;
+    for (final var transaction : transactions) {
+      last = txMapper.mapTransaction(runtimeAccounts, transaction);
+    }
+    return last;
+  }
+}
@@ -0,0 +1,44 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import software.sava.core.tx.Instruction;
+import systems.glam.ix.proxy.IxProxy;
+
+import java.util.concurrent.TimeUnit;
+
+import static systems.glam.ix.proxy.jmh.MappingFixtures.*;
+
+/// [IxProxy#mapInstructionUnchecked] for a re-mapped instruction, a payer instruction which must be re-written and a
+/// payer instruction which already has the expected fee payer.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IxProxyBenchmark {
+
+  @Param({"remap", "payer", "payer_unchanged"})
+  String proxyType;
+
+  private IxProxy<Object> ixProxy;
+  private Instruction instruction;
+
+  @Setup
+  public void setup() {
+    final var config = parseConfig(MIXED_PROXY_CONFIG);
+    final var programProxy = config.createProgramProxies(INVOKED_PROXY_PROGRAM, DYNAMIC_ACCOUNT_FACTORY).iterator().next();
+    this.instruction = switch (proxyType) {
+      case "remap" -> createInstruction(OTHER_SIGNER, 2, 64);
+      case "payer" -> createInstruction(OTHER_SIGNER, 1, 64);
+      case "payer_unchanged" -> createInstruction(FEE_PAYER, 1, 64);
+      default -> throw new IllegalStateException("Unknown proxy type: " + proxyType);
+    };
+    this.ixProxy = programProxy.lookupProxyOrThrow(instruction);
+  }
+
+  @Benchmark
+  public Instruction mapInstructionUnchecked() {
+    return ixProxy.mapInstructionUnchecked(READ_CPI_PROGRAM, FEE_PAYER, null, instruction);
+  }
+}
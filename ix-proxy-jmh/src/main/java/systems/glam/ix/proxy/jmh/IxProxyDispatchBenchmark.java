@@ -0,0 +1,59 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.sava.core.tx.Instruction;
+import systems.glam.ix.proxy.ProgramProxy;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static systems.glam.ix.proxy.jmh.MappingFixtures.*;
+
+/// Compares calling [systems.glam.ix.proxy.IxProxy#mapInstructionUnchecked] through the interface against the
+/// kind-switch dispatch used by [ProgramProxy#mapInstructionUnchecked], over an even mix of identity, payer and
+/// re-mapped instructions.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IxProxyDispatchBenchmark {
+
+  private static final int NUM_INSTRUCTIONS = 1_024;
+
+  private ProgramProxy<Object> programProxy;
+  private Instruction[] instructions;
+
+  @Setup
+  public void setup() {
+    final var config = parseConfig(MIXED_PROXY_CONFIG);
+    this.programProxy = config.createProgramProxies(INVOKED_PROXY_PROGRAM, DYNAMIC_ACCOUNT_FACTORY).iterator().next();
+
+    final var random = new Random(7);
+    this.instructions = new Instruction[NUM_INSTRUCTIONS];
+    for (int i = 0; i < NUM_INSTRUCTIONS; ++i) {
+      final int discriminator = random.nextInt(3);
+      final var signer = discriminator == 1 && random.nextBoolean() ? FEE_PAYER : OTHER_SIGNER;
+      instructions[i] = createInstruction(signer, discriminator, 32);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_INSTRUCTIONS)
+  public void interfaceDispatch(final Blackhole blackhole) {
+    for (final var instruction : instructions) {
+      final var ixProxy = programProxy.lookupProxy(instruction);
+      blackhole.consume(ixProxy.mapInstructionUnchecked(READ_CPI_PROGRAM, FEE_PAYER, null, instruction));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_INSTRUCTIONS)
+  public void kindSwitchDispatch(final Blackhole blackhole) {
+    for (final var instruction : instructions) {
+      blackhole.consume(programProxy.mapInstructionUnchecked(FEE_PAYER, null, instruction));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.sava.core.tx.Instruction;
+import systems.glam.ix.proxy.ProgramProxy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static systems.glam.ix.proxy.jmh.MappingFixtures.*;
+
+/// [ProgramProxy#lookupProxy(Instruction)] for programs with fixed or mixed length discriminators.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupProxyBenchmark {
+
+  private static final int NUM_LOOKUPS = 1_024;
+
+  @Param({"16", "256"})
+  int numInstructions;
+  @Param({"false", "true"})
+  boolean mixedLengths;
+
+  private ProgramProxy<Object> programProxy;
+  private Instruction[] instructions;
+
+  @Setup
+  public void setup() {
+    final var config = parseConfig(identityConfig(CPI_PROGRAM, numInstructions, mixedLengths, 7));
+    this.programProxy = config.createProgramProxies(INVOKED_PROXY_PROGRAM, DYNAMIC_ACCOUNT_FACTORY).iterator().next();
+
+    final var ixMapConfigs = config.ixMapConfigs();
+    final var random = new Random(7);
+    this.instructions = new Instruction[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; ++i) {
+      final var discriminator = ixMapConfigs.get(random.nextInt(ixMapConfigs.size())).cpiDiscriminator();
+      instructions[i] = createInstruction(CPI_PROGRAM, discriminator.data(), List.of(WRITE_ACCOUNT), 32);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public void lookupProxy(final Blackhole blackhole) {
+    for (final var instruction : instructions) {
+      blackhole.consume(programProxy.lookupProxy(instruction));
+    }
+  }
+}
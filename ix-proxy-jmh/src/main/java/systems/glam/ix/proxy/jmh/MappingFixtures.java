@@ -0,0 +1,132 @@
+package systems.glam.ix.proxy.jmh;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.lookup.AddressLookupTable;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.encoding.ByteUtil;
+import software.sava.core.tx.Instruction;
+import systems.comodal.jsoniter.JsonIterator;
+import systems.glam.ix.proxy.DynamicAccount;
+import systems.glam.ix.proxy.DynamicAccountConfig;
+import systems.glam.ix.proxy.ProgramMapConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+final class MappingFixtures {
+
+  static final PublicKey INVOKED_PROGRAM = PublicKey.fromBase58Encoded("GLAMbTqav9N9witRjswJ8enwp9vv5G8bsSJ2kPJ4rcyc");
+  static final AccountMeta INVOKED_PROXY_PROGRAM = AccountMeta.createInvoked(INVOKED_PROGRAM);
+  static final PublicKey CPI_PROGRAM = PublicKey.fromBase58Encoded("dRiftyHA39MWEi3m9aunc5MzRF1JYuBsbn6VPcn33UH");
+  static final AccountMeta READ_CPI_PROGRAM = AccountMeta.createRead(CPI_PROGRAM);
+  static final AccountMeta FEE_PAYER = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+  static final AccountMeta OTHER_SIGNER = AccountMeta.createMeta(PublicKey.fromBase58Encoded("4Uug1zHGvkYFuTGvS34Q5MnP7Bf36paXjtU6REUZnMhd"), true, true);
+  static final AccountMeta WRITE_ACCOUNT = AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"));
+  static final AccountMeta READ_ACCOUNT = AccountMeta.createRead(PublicKey.fromBase58Encoded("5X1AWem3eTtXRFFh9PMSPZmZfcdExXHD25cJXnvxrzTy"));
+
+  /// One instruction for each proxy type: identity, payer and re-mapped.
+  static final String MIXED_PROXY_CONFIG = String.format("""
+      {
+        "program_id": "%s",
+        "instructions": [
+          {
+            "src_ix_name": "identity",
+            "src_discriminator": [0]
+          },
+          {
+            "src_ix_name": "payer",
+            "src_discriminator": [1],
+            "dynamic_accounts": [
+              {"name": "fee_payer", "index": 0, "writable": true, "signer": true}
+            ],
+            "index_map": [-1, 1, 2]
+          },
+          {
+            "src_ix_name": "remap",
+            "src_discriminator": [2],
+            "dst_ix_name": "proxy_remap",
+            "dst_discriminator": [179, 118, 20, 212, 145, 146, 49, 130],
+            "dynamic_accounts": [
+              {"name": "fee_payer", "index": 0, "writable": true, "signer": true},
+              {"name": "cpi_program", "index": 1, "writable": false, "signer": false}
+            ],
+            "static_accounts": [],
+            "index_map": [-1, 2, 3]
+          }
+        ]
+      }""", CPI_PROGRAM.toBase58());
+
+  static final Function<DynamicAccountConfig, DynamicAccount<Object>> DYNAMIC_ACCOUNT_FACTORY = accountConfig ->
+      switch (accountConfig.name()) {
+        case "fee_payer" -> accountConfig.createFeePayerAccount();
+        case "cpi_program" -> accountConfig.createReadCpiProgram();
+        default -> throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+      };
+
+  /// Identity instructions with random discriminators, either all 8 bytes or a mix of 4 and 8 bytes.
+  static String identityConfig(final PublicKey program,
+                               final int numInstructions,
+                               final boolean mixedLengths,
+                               final long seed) {
+    final var random = new Random(seed);
+    final var json = new StringBuilder(numInstructions << 6);
+    json.append("{\"program_id\":\"").append(program.toBase58()).append("\",\"instructions\":[");
+    for (int i = 0; i < numInstructions; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"src_ix_name\":\"ix_").append(i).append("\",\"src_discriminator\":[");
+      final int discriminatorLength = mixedLengths && random.nextBoolean() ? 4 : 8;
+      for (int b = 0; b < discriminatorLength; ++b) {
+        if (b > 0) {
+          json.append(',');
+        }
+        json.append(random.nextInt(256));
+      }
+      json.append("]}");
+    }
+    return json.append("]}").toString();
+  }
+
+  static ProgramMapConfig parseConfig(final String json) {
+    return ProgramMapConfig.parseConfig(new HashMap<>(), new HashMap<>(), JsonIterator.parse(json));
+  }
+
+  static Instruction createInstruction(final AccountMeta signer, final int discriminator, final int dataLength) {
+    final byte[] data = new byte[dataLength];
+    data[0] = (byte) discriminator;
+    for (int i = 1; i < dataLength; ++i) {
+      data[i] = (byte) i;
+    }
+    return Instruction.createInstruction(CPI_PROGRAM, List.of(signer, WRITE_ACCOUNT, READ_ACCOUNT), data);
+  }
+
+  static Instruction createInstruction(final PublicKey program,
+                                       final byte[] discriminator,
+                                       final List<AccountMeta> accounts,
+                                       final int dataLength) {
+    final byte[] data = new byte[dataLength];
+    System.arraycopy(discriminator, 0, data, 0, discriminator.length);
+    for (int i = discriminator.length; i < dataLength; ++i) {
+      data[i] = (byte) i;
+    }
+    return Instruction.createInstruction(program, accounts, data);
+  }
+
+  /// An active lookup table without an authority holding the given accounts.
+  static AddressLookupTable createLookupTable(final PublicKey address, final AccountMeta... accounts) {
+    final byte[] data = new byte[AddressLookupTable.LOOKUP_TABLE_META_SIZE + (accounts.length * PublicKey.PUBLIC_KEY_LENGTH)];
+    ByteUtil.putInt32LE(data, 0, 1);
+    ByteUtil.putInt64LE(data, 4, -1L);
+    int i = AddressLookupTable.LOOKUP_TABLE_META_SIZE;
+    for (final var account : accounts) {
+      i += account.publicKey().write(data, i);
+    }
+    return AddressLookupTable.read(address, data);
+  }
+
+  private MappingFixtures() {
+  }
+}
@@ -0,0 +1,72 @@
+package systems.glam.ix.proxy.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+import systems.glam.ix.proxy.TransactionMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static systems.glam.ix.proxy.jmh.MappingFixtures.*;
+
+/// [TransactionMapper#mapTransaction] for a transaction which requires re-mapping and one which is returned unchanged,
+/// each with and without an address lookup table.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMapperBenchmark {
+
+  private static final PublicKey LOOKUP_TABLE = PublicKey.fromBase58Encoded("3x85u7SWkmmr7YQGYhtjARgxwegTLJgkSLRprfXod6rh");
+  private static final PublicKey UNMAPPED_PROGRAM = PublicKey.fromBase58Encoded("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
+
+  @Param({"false", "true"})
+  boolean lookupTable;
+
+  private TransactionMapper<Object> txMapper;
+  private Transaction transaction;
+  private Transaction unchangedTransaction;
+
+  private Transaction createTx(final List<Instruction> instructions) {
+    if (lookupTable) {
+      final var table = createLookupTable(LOOKUP_TABLE, WRITE_ACCOUNT, READ_ACCOUNT);
+      return Transaction.createTx(FEE_PAYER, instructions, table);
+    } else {
+      return Transaction.createTx(FEE_PAYER, instructions);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    this.txMapper = TransactionMapper.createMapper(
+        INVOKED_PROXY_PROGRAM,
+        DYNAMIC_ACCOUNT_FACTORY,
+        List.of(parseConfig(MIXED_PROXY_CONFIG))
+    );
+    final var unmappedIx = createInstruction(UNMAPPED_PROGRAM, new byte[]{17}, List.of(WRITE_ACCOUNT), 1);
+    this.transaction = createTx(List.of(
+        unmappedIx,
+        createInstruction(OTHER_SIGNER, 2, 64),
+        createInstruction(OTHER_SIGNER, 1, 16)
+    ));
+    this.unchangedTransaction = createTx(List.of(
+        unmappedIx,
+        createInstruction(FEE_PAYER, 0, 64),
+        createInstruction(FEE_PAYER, 1, 16)
+    ));
+  }
+
+  @Benchmark
+  public Transaction mapTransaction() {
+    return txMapper.mapTransaction(null, transaction);
+  }
+
+  @Benchmark
+  public Transaction mapUnchangedTransaction() {
+    return txMapper.mapTransaction(null, unchangedTransaction);
+  }
+}
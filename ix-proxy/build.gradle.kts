@@ -1,4 +1,15 @@
+plugins {
+  id("java-test-fixtures")
+}
+
 testModuleInfo {
   requires("org.junit.jupiter.api")
+  requires("jdk.httpserver")
+  requires("systems.glam.ix_proxy.test.fixtures")
   runtimeOnly("org.junit.jupiter.engine")
 }
+
+// The corpus generator is shared with the tests and benchmarks, but is not part of the published library.
+val javaComponent = components["java"] as AdhocComponentWithVariants
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
@@ -6,24 +6,65 @@ import software.sava.core.tx.Instruction;
 
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 
-abstract class BaseIxProxy<A> implements IxProxy<A> {
+abstract sealed class BaseIxProxy<A> implements IxProxy<A> permits IdentityIxProxy, PayerIxProxy, IxProxyRecord {
+
+  static final int IDENTITY = 0;
+  static final int PAYER = 1;
+  static final int REMAP = 2;
 
   protected final Discriminator cpiDiscriminator;
   private final byte[] cpiDiscriminatorBytes;
+  /// Identifies the final implementation for [#dispatchUnchecked].
+  final int kind;
 
-  protected BaseIxProxy(final Discriminator cpiDiscriminator) {
+  protected BaseIxProxy(final Discriminator cpiDiscriminator, final int kind) {
     this.cpiDiscriminator = cpiDiscriminator;
     this.cpiDiscriminatorBytes = cpiDiscriminator.data();
+    this.kind = kind;
   }
 
-  protected final void validateMapping(final AccountMeta readCpiProgram, final Instruction instruction) {
+  /// Switches on the proxy kind to call the final implementation directly, keeping each call site monomorphic when
+  /// all proxy types are in use.
+  static <A> Instruction dispatchUnchecked(final IxProxy<A> ixProxy,
+                                           final AccountMeta readCpiProgram,
+                                           final AccountMeta feePayer,
+                                           final A runtimeAccounts,
+                                           final Instruction instruction) {
+    final var proxy = (BaseIxProxy<A>) ixProxy;
+    return switch (proxy.kind) {
+      case IDENTITY -> instruction;
+      case PAYER -> ((PayerIxProxy<A>) proxy).mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction);
+      default -> ((IxProxyRecord<A>) proxy).mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction);
+    };
+  }
+
+  static <A> Instruction dispatchUnchecked(final IxProxy<A> ixProxy,
+                                           final AccountMeta readCpiProgram,
+                                           final AccountMeta feePayer,
+                                           final A runtimeAccounts,
+                                           final Instruction instruction,
+                                           final MappingArena arena) {
+    final var proxy = (BaseIxProxy<A>) ixProxy;
+    return switch (proxy.kind) {
+      case IDENTITY -> instruction;
+      case PAYER -> ((PayerIxProxy<A>) proxy).mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction);
+      default -> ((IxProxyRecord<A>) proxy).mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction, arena);
+    };
+  }
+
+  protected static void validateProgram(final AccountMeta readCpiProgram, final Instruction instruction) {
     if (!instruction.programId().publicKey().equals(readCpiProgram.publicKey())) {
       throw new IllegalStateException(String.format("""
               Expected CPI program to be %s, but was %s.""",
           readCpiProgram.publicKey(), instruction.programId().publicKey()
       ));
     }
+  }
+
+  protected final void validateMapping(final AccountMeta readCpiProgram, final Instruction instruction) {
+    validateProgram(readCpiProgram, instruction);
 
     final int cpiDiscriminatorLength = cpiDiscriminator.length();
     if (cpiDiscriminatorBytes.length != cpiDiscriminatorLength) {
@@ -53,9 +94,78 @@ abstract class BaseIxProxy<A> implements IxProxy<A> {
                                           final A runtimeAccounts,
                                           final Instruction instruction) {
     validateMapping(readCpiProgram, instruction);
+    return dispatchUnchecked(this, readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public final Instruction mapMatchedInstruction(final AccountMeta readCpiProgram,
+                                                 final AccountMeta feePayer,
+                                                 final A runtimeAccounts,
+                                                 final Instruction instruction) {
+    validateProgram(readCpiProgram, instruction);
+    return dispatchUnchecked(this, readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public final Instruction mapMatchedInstruction(final AccountMeta readCpiProgram,
+                                                 final AccountMeta feePayer,
+                                                 final A runtimeAccounts,
+                                                 final Instruction instruction,
+                                                 final MappingArena arena) {
+    validateProgram(readCpiProgram, instruction);
+    return dispatchUnchecked(this, readCpiProgram, feePayer, runtimeAccounts, instruction, arena);
+  }
+
+  @Override
+  public final Instruction[] fanOutMatchedInstruction(final AccountMeta readCpiProgram,
+                                                      final AccountMeta feePayer,
+                                                      final List<A> runtimeAccounts,
+                                                      final Instruction instruction) {
+    validateProgram(readCpiProgram, instruction);
+    final var mappedInstructions = new Instruction[runtimeAccounts.size()];
+    if (kind == REMAP) {
+      ((IxProxyRecord<A>) this).fanOutInstructionUnchecked(
+          readCpiProgram, feePayer, runtimeAccounts, instruction, mappedInstructions
+      );
+    } else if (mappedInstructions.length > 0) {
+      // Identity and payer proxies do not depend on the runtime accounts.
+      final var mappedInstruction = dispatchUnchecked(this, readCpiProgram, feePayer, runtimeAccounts.getFirst(), instruction);
+      Arrays.fill(mappedInstructions, mappedInstruction);
+    }
+    return mappedInstructions;
+  }
+
+  /// Proxies which do not create new instruction data have no use for the arena.
+  @Override
+  public Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
+                                             final AccountMeta feePayer,
+                                             final A runtimeAccounts,
+                                             final Instruction instruction,
+                                             final MappingArena arena) {
     return mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction);
   }
 
+  /// The minimum number of accounts a source instruction must have to be mapped.
+  protected int numRequiredAccounts() {
+    return 0;
+  }
+
+  @Override
+  public final Instruction tryMapMatchedInstruction(final AccountMeta readCpiProgram,
+                                                    final AccountMeta feePayer,
+                                                    final A runtimeAccounts,
+                                                    final Instruction instruction,
+                                                    final MappingResult result) {
+    if (!instruction.programId().publicKey().equals(readCpiProgram.publicKey())) {
+      return result.programMismatch(readCpiProgram.publicKey(), instruction);
+    }
+    final int numRequiredAccounts = numRequiredAccounts();
+    if (instruction.accounts().size() < numRequiredAccounts) {
+      return result.missingAccounts(numRequiredAccounts, instruction);
+    }
+    return dispatchUnchecked(this, readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
   @Override
   public final boolean matchesCpiDiscriminator(final byte[] instructionData, final int offset, final int length) {
     final int discriminatorLength = cpiDiscriminatorBytes.length;
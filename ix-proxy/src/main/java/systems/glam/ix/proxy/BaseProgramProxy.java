@@ -6,6 +6,7 @@ import software.sava.core.programs.Discriminator;
 import software.sava.core.tx.Instruction;
 
 import java.util.Base64;
+import java.util.List;
 
 abstract class BaseProgramProxy<A> implements ProgramProxy<A> {
 
@@ -35,6 +36,10 @@ abstract class BaseProgramProxy<A> implements ProgramProxy<A> {
     }
   }
 
+  final AccountMeta readCpiProgram() {
+    return readCpiProgram;
+  }
+
   @Override
   public final PublicKey cpiProgram() {
     return readCpiProgram.publicKey();
@@ -45,7 +50,16 @@ abstract class BaseProgramProxy<A> implements ProgramProxy<A> {
                                           final A runtimeAccounts,
                                           final Instruction instruction) {
     final var proxy = lookupProxyOrThrow(instruction);
-    return proxy.mapInstruction(readCpiProgram, feePayer, runtimeAccounts, instruction);
+    return proxy.mapMatchedInstruction(readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public final Instruction mapInstruction(final AccountMeta feePayer,
+                                          final A runtimeAccounts,
+                                          final Instruction instruction,
+                                          final MappingArena arena) {
+    final var proxy = lookupProxyOrThrow(instruction);
+    return proxy.mapMatchedInstruction(readCpiProgram, feePayer, runtimeAccounts, instruction, arena);
   }
 
   @Override
@@ -53,6 +67,27 @@ abstract class BaseProgramProxy<A> implements ProgramProxy<A> {
                                                    final A runtimeAccounts,
                                                    final Instruction instruction) {
     final var proxy = lookupProxyOrThrow(instruction);
-    return proxy.mapInstructionUnchecked(readCpiProgram, feePayer, runtimeAccounts, instruction);
+    return BaseIxProxy.dispatchUnchecked(proxy, readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public final Instruction[] fanOutInstruction(final AccountMeta feePayer,
+                                               final List<A> runtimeAccounts,
+                                               final Instruction instruction) {
+    final var proxy = lookupProxyOrThrow(instruction);
+    return proxy.fanOutMatchedInstruction(readCpiProgram, feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public final Instruction tryMapInstruction(final AccountMeta feePayer,
+                                             final A runtimeAccounts,
+                                             final Instruction instruction,
+                                             final MappingResult result) {
+    final var proxy = lookupProxy(instruction);
+    if (proxy == null) {
+      return result.unsupportedInstruction(instruction);
+    } else {
+      return proxy.tryMapMatchedInstruction(readCpiProgram, feePayer, runtimeAccounts, instruction, result);
+    }
   }
 }
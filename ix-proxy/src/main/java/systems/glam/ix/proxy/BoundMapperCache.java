@@ -0,0 +1,80 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/// Size bounded, least recently used, cache of [BoundTransactionMapper]'s keyed by vault, so that hot vaults re-use
+/// their bound account layouts across requests.
+///
+/// The cache is bound to a single [TransactionMapper] snapshot, create a new cache when the mapper is replaced, e.g.
+/// after a [ConfigWatcher] reload. Thread safe.
+public final class BoundMapperCache<K, A> {
+
+  private final TransactionMapper<A> transactionMapper;
+  private final int maxSize;
+  private final LinkedHashMap<K, BoundTransactionMapper<A>> boundMappers;
+
+  public BoundMapperCache(final TransactionMapper<A> transactionMapper, final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive, but was " + maxSize);
+    }
+    this.transactionMapper = transactionMapper;
+    this.maxSize = maxSize;
+    this.boundMappers = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, BoundTransactionMapper<A>> eldest) {
+        return size() > BoundMapperCache.this.maxSize;
+      }
+    };
+  }
+
+  public TransactionMapper<A> transactionMapper() {
+    return transactionMapper;
+  }
+
+  public int maxSize() {
+    return maxSize;
+  }
+
+  public synchronized int size() {
+    return boundMappers.size();
+  }
+
+  private synchronized BoundTransactionMapper<A> get(final K key) {
+    return boundMappers.get(key);
+  }
+
+  private synchronized void put(final K key, final BoundTransactionMapper<A> boundMapper) {
+    boundMappers.put(key, boundMapper);
+  }
+
+  /// Binds outside the lock on a miss, or if the fee payer of the cached mapper differs, in which case its runtime
+  /// accounts are re-used.
+  ///
+  /// @param runtimeAccounts creates the runtime accounts of a vault which is not cached.
+  public BoundTransactionMapper<A> bind(final K key,
+                                       final AccountMeta feePayer,
+                                       final Function<K, A> runtimeAccounts) {
+    final var cached = get(key);
+    if (cached != null && cached.feePayer().equals(feePayer)) {
+      return cached;
+    }
+    final var boundMapper = transactionMapper.bind(
+        cached == null ? runtimeAccounts.apply(key) : cached.runtimeAccounts(),
+        feePayer
+    );
+    put(key, boundMapper);
+    return boundMapper;
+  }
+
+  public synchronized void invalidate(final K key) {
+    boundMappers.remove(key);
+  }
+
+  public synchronized void clear() {
+    boundMappers.clear();
+  }
+}
@@ -0,0 +1,108 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Holds the bound account layout of each [IxProxyRecord] once it has been used. Layouts are keyed by program proxy
+/// first, because an instruction proxy may be shared by several programs, each with their own CPI program account.
+final class BoundProgramProxyMap<A> implements BoundTransactionMapper<A> {
+
+  private final ProgramProxyMap<A> transactionMapper;
+  private final A runtimeAccounts;
+  private final AccountMeta feePayer;
+  private final Map<ProgramProxy<A>, Map<IxProxy<A>, AccountMeta[]>> boundAccounts;
+
+  BoundProgramProxyMap(final ProgramProxyMap<A> transactionMapper,
+                       final A runtimeAccounts,
+                       final AccountMeta feePayer) {
+    this.transactionMapper = transactionMapper;
+    this.runtimeAccounts = runtimeAccounts;
+    this.feePayer = feePayer;
+    this.boundAccounts = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public TransactionMapper<A> transactionMapper() {
+    return transactionMapper;
+  }
+
+  @Override
+  public A runtimeAccounts() {
+    return runtimeAccounts;
+  }
+
+  @Override
+  public AccountMeta feePayer() {
+    return feePayer;
+  }
+
+  private AccountMeta[] boundAccounts(final BaseProgramProxy<A> programProxy, final IxProxyRecord<A> ixProxy) {
+    var programAccounts = boundAccounts.get(programProxy);
+    if (programAccounts == null) {
+      programAccounts = boundAccounts.computeIfAbsent(programProxy, _ -> new ConcurrentHashMap<>());
+    }
+    final var accounts = programAccounts.get(ixProxy);
+    if (accounts != null) {
+      return accounts;
+    }
+    // Binding is idempotent, a concurrent first use may bind twice but all threads observe the first layout.
+    final var bound = ixProxy.bindAccounts(programProxy.readCpiProgram(), feePayer, runtimeAccounts);
+    final var witness = programAccounts.putIfAbsent(ixProxy, bound);
+    return witness == null ? bound : witness;
+  }
+
+  @Override
+  public Instruction mapInstruction(final Instruction instruction) {
+    final var proxy = transactionMapper.programProxy(instruction.programId().publicKey());
+    if (proxy instanceof BaseProgramProxy<A> programProxy) {
+      final var ixProxy = programProxy.lookupProxyOrThrow(instruction);
+      if (ixProxy instanceof IxProxyRecord<A> ixProxyRecord) {
+        return ixProxyRecord.mapBoundInstructionUnchecked(boundAccounts(programProxy, ixProxyRecord), instruction);
+      } else {
+        return BaseIxProxy.dispatchUnchecked(ixProxy, programProxy.readCpiProgram(), feePayer, runtimeAccounts, instruction);
+      }
+    } else if (proxy == null) {
+      return instruction;
+    } else {
+      // Program proxies implemented outside of this package are not bound.
+      return proxy.mapInstruction(feePayer, runtimeAccounts, instruction);
+    }
+  }
+
+  @Override
+  public Instruction[] mapInstructions(final List<Instruction> instructions) {
+    final var mappedInstructions = new Instruction[instructions.size()];
+    int i = 0;
+    for (final var instruction : instructions) {
+      mappedInstructions[i++] = mapInstruction(instruction);
+    }
+    return mappedInstructions;
+  }
+
+  @Override
+  public Transaction mapTransaction(final Transaction transaction) {
+    final var instructions = transaction.instructions();
+    final int numInstructions = instructions.size();
+    for (int i = 0; i < numInstructions; ++i) {
+      final var instruction = instructions.get(i);
+      final var mappedInstruction = mapInstruction(instruction);
+      if (mappedInstruction != instruction) {
+        final var mappedInstructions = instructions.toArray(Instruction[]::new);
+        mappedInstructions[i] = mappedInstruction;
+        for (++i; i < numInstructions; ++i) {
+          mappedInstructions[i] = mapInstruction(mappedInstructions[i]);
+        }
+        return ProgramProxyMap.createTx(feePayer, Arrays.asList(mappedInstructions), transaction);
+      }
+    }
+    return feePayer.publicKey().equals(transaction.feePayer().publicKey())
+        ? transaction
+        : ProgramProxyMap.createTx(feePayer, instructions, transaction);
+  }
+}
@@ -0,0 +1,24 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+
+import java.util.List;
+
+/// A [TransactionMapper] bound to the runtime accounts and fee payer of a single vault, see [TransactionMapper#bind].
+public interface BoundTransactionMapper<A> {
+
+  TransactionMapper<A> transactionMapper();
+
+  A runtimeAccounts();
+
+  AccountMeta feePayer();
+
+  Instruction mapInstruction(final Instruction instruction);
+
+  Instruction[] mapInstructions(final List<Instruction> instructions);
+
+  /// Returns the given transaction instance if no instruction was re-mapped and the fee payer is unchanged.
+  Transaction mapTransaction(final Transaction transaction);
+}
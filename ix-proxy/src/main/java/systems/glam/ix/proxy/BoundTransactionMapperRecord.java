@@ -0,0 +1,29 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+
+import java.util.List;
+
+/// Default [TransactionMapper#bind] for mappers implemented outside of this library, each call delegates to the
+/// unbound mapper.
+record BoundTransactionMapperRecord<A>(TransactionMapper<A> transactionMapper,
+                                       A runtimeAccounts,
+                                       AccountMeta feePayer) implements BoundTransactionMapper<A> {
+
+  @Override
+  public Instruction mapInstruction(final Instruction instruction) {
+    return transactionMapper.mapInstruction(feePayer, runtimeAccounts, instruction);
+  }
+
+  @Override
+  public Instruction[] mapInstructions(final List<Instruction> instructions) {
+    return transactionMapper.mapInstructions(feePayer, runtimeAccounts, instructions);
+  }
+
+  @Override
+  public Transaction mapTransaction(final Transaction transaction) {
+    return transactionMapper.mapTransaction(feePayer, runtimeAccounts, transaction);
+  }
+}
@@ -0,0 +1,127 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import systems.comodal.jsoniter.JsonIterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Caches each compiled [ProgramMapConfig] in a [MappingSnapshot] keyed on a fingerprint of its source JSON, so that
+/// unchanged configs are not re-parsed across restarts.
+///
+/// Each config has a single artifact, `<name>.snapshot`, in the cache directory. An artifact whose fingerprint does not
+/// match the current JSON, is corrupt, or was written by a different snapshot version, is rebuilt from the JSON. Names
+/// are the config file names, configs sharing a name remain correct but evict each other's artifact.
+///
+/// [ProgramProxy]'s are still created from the loaded configs, because [DynamicAccount]'s are produced by the caller's
+/// factory.
+public final class CompiledConfigCache {
+
+  private static final System.Logger logger = System.getLogger(CompiledConfigCache.class.getName());
+
+  static final String ARTIFACT_FILE_SUFFIX = ".snapshot";
+
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final long PRIME_1 = 0x9E3779B97F4A7C15L;
+  private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+  private final Path cacheDirectory;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  public CompiledConfigCache(final Path cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /// Fast non-cryptographic 64-bit hash, it only needs to detect edits to a config, not tampering.
+  /// Never returns zero, which identifies snapshots without a source fingerprint.
+  public static long fingerprint(final byte[] data) {
+    long h = PRIME_1 ^ data.length;
+    final int numWords = data.length >>> 3;
+    int i = 0;
+    for (final int end = numWords << 3; i < end; i += Long.BYTES) {
+      h = Long.rotateLeft(h ^ ((long) LONG_LE.get(data, i) * PRIME_2), 31) * PRIME_1;
+    }
+    long tail = 0;
+    for (int shift = 0; i < data.length; ++i, shift += Byte.SIZE) {
+      tail |= (data[i] & 0xFFL) << shift;
+    }
+    h = Long.rotateLeft(h ^ (tail * PRIME_2), 31) * PRIME_1;
+    // MurmurHash3 finalizer.
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h == 0 ? PRIME_1 : h;
+  }
+
+  public Path cacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /// @return the number of configs loaded from an artifact.
+  public long hits() {
+    return hits.sum();
+  }
+
+  /// @return the number of configs parsed from JSON, because their artifact was missing or out of date.
+  public long misses() {
+    return misses.sum();
+  }
+
+  Path artifactFile(final String name) {
+    return cacheDirectory.resolve(name + ARTIFACT_FILE_SUFFIX);
+  }
+
+  /// Loads the compiled config for `configJson` from its artifact, or parses it and writes a new artifact. Failing to
+  /// write the artifact is logged and does not fail the load.
+  ProgramMapConfig load(final String name,
+                        final byte[] configJson,
+                        final Map<AccountMeta, AccountMeta> accountMetaCache,
+                        final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    final long fingerprint = fingerprint(configJson);
+    final var artifactFile = artifactFile(name);
+    if (Files.exists(artifactFile)) {
+      try {
+        final var configs = MappingSnapshot.read(artifactFile, fingerprint, accountMetaCache, indexedAccountMetaCache);
+        if (configs != null && configs.size() == 1) {
+          hits.increment();
+          return configs.getFirst();
+        }
+      } catch (final RuntimeException e) {
+        logger.log(System.Logger.Level.WARNING, String.format(
+            "Failed to read compiled config %s, rebuilding it.", artifactFile
+        ), e);
+      }
+    }
+
+    misses.increment();
+    final var programMapConfig = ProgramMapConfig.parseConfig(
+        accountMetaCache,
+        indexedAccountMetaCache,
+        JsonIterator.parse(configJson)
+    );
+    try {
+      Files.createDirectories(cacheDirectory);
+      MappingSnapshot.write(artifactFile, fingerprint, List.of(programMapConfig));
+    } catch (final IOException | UncheckedIOException e) {
+      // The cache is optional, the config is still loaded.
+      logger.log(System.Logger.Level.WARNING, String.format(
+          "Failed to write compiled config %s.", artifactFile
+      ), e);
+    }
+    return programMapConfig;
+  }
+}
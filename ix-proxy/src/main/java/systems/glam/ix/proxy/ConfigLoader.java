@@ -8,55 +8,164 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
-import java.util.stream.IntStream;
-
-import static java.nio.file.StandardOpenOption.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
 import static systems.comodal.jsoniter.JsonIterator.fieldEquals;
 
 public record ConfigLoader(Path configDirectory, Set<ConfigResource> remoteConfigs) {
 
-  private static final System.Logger logger = System.getLogger(ConfigLoader.class.getName());
+  /// Intern pools are shared by every config parsed in a single load, so that equal account metas resolve to the same
+  /// instance. Parsing tasks run concurrently, which requires an atomic `putIfAbsent`.
+  static Map<AccountMeta, AccountMeta> createAccountMetaPool() {
+    return new ConcurrentHashMap<>(256);
+  }
+
+  static Map<IndexedAccountMeta, IndexedAccountMeta> createIndexedAccountMetaPool() {
+    return new ConcurrentHashMap<>(256);
+  }
+
+  /// Adds the static accounts of already interned configs to the given pools. Long-lived loaders rebuild their pools
+  /// from the configs still in use, so that account metas only referenced by replaced configs can be collected.
+  static void internStaticAccounts(final Collection<ProgramMapConfig> configs,
+                                   final Map<AccountMeta, AccountMeta> accountMetaCache,
+                                   final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    for (final var config : configs) {
+      for (final var ixMapConfig : config.ixMapConfigs()) {
+        for (final var staticAccount : ixMapConfig.staticAccounts()) {
+          indexedAccountMetaCache.putIfAbsent(staticAccount, staticAccount);
+          final var accountMeta = staticAccount.accountMeta();
+          accountMetaCache.putIfAbsent(accountMeta, accountMeta);
+        }
+      }
+    }
+  }
 
+  /// Parses the local config files in parallel on the common [ForkJoinPool].
+  ///
+  /// @see #loadLocalConfigs(ExecutorService)
   public List<ProgramMapConfig> loadLocalConfigs() {
+    return loadLocalConfigs(ForkJoinPool.commonPool());
+  }
+
+  private void validateConfigDirectory() {
     if (configDirectory == null) {
       throw new IllegalStateException("No local config directory specified.");
     }
     if (!Files.isDirectory(configDirectory)) {
       throw new IllegalStateException(String.format("Local config directory %s does not exist.", configDirectory));
     }
+  }
 
-    final var accountMetaCache = new HashMap<AccountMeta, AccountMeta>(256);
-    final var indexedAccountMetaCache = new HashMap<IndexedAccountMeta, IndexedAccountMeta>(256);
+  /// Reads and parses each local config file as a separate task on the given executor. Account metas are interned
+  /// through pools shared across all files, and the returned configs are in directory walk order.
+  public List<ProgramMapConfig> loadLocalConfigs(final ExecutorService executorService) {
+    return loadLocalConfigs(executorService, null);
+  }
+
+  /// Loads each unchanged local config file from its compiled artifact, and only parses those which have been
+  /// modified since their artifact was written, see [CompiledConfigCache].
+  ///
+  /// @param compiledConfigCache null to always parse the JSON.
+  public List<ProgramMapConfig> loadLocalConfigs(final ExecutorService executorService,
+                                                 final CompiledConfigCache compiledConfigCache) {
+    validateConfigDirectory();
+    return parseConfigFiles(
+        listConfigFiles(configDirectory),
+        executorService,
+        compiledConfigCache,
+        createAccountMetaPool(),
+        createIndexedAccountMetaPool()
+    );
+  }
 
+  /// Reads the local config files, but defers parsing each beyond its program ids until first use, see
+  /// [TransactionMapper#createLazyMapper].
+  public <A> TransactionMapper<A> createLazyMapper(final AccountMeta invokedProxyProgram,
+                                                   final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory) {
+    validateConfigDirectory();
+    final var configFiles = listConfigFiles(configDirectory);
+    final var configsJson = new ArrayList<byte[]>(configFiles.size());
+    try {
+      for (final var configFile : configFiles) {
+        configsJson.add(Files.readAllBytes(configFile));
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return TransactionMapper.createLazyMapper(invokedProxyProgram, dynamicAccountFactory, configsJson);
+  }
+
+  /// Loads the local configs and watches the config directory for changes, see [ConfigWatcher].
+  public <A> ConfigWatcher<A> watchLocalConfigs(final AccountMeta invokedProxyProgram,
+                                                final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory) {
+    validateConfigDirectory();
+    return ConfigWatcher.createWatcher(configDirectory, invokedProxyProgram, dynamicAccountFactory);
+  }
+
+  static boolean isConfigFile(final Path path) {
+    return path.getFileName().toString().endsWith(".json");
+  }
+
+  static List<Path> listConfigFiles(final Path configDirectory) {
     try (final var paths = Files.walk(configDirectory)) {
-      final var configFiles = paths
+      return paths
           .filter(Files::isRegularFile)
-          .filter(path -> path.getFileName().toString().endsWith(".json"))
+          .filter(ConfigLoader::isConfigFile)
           .toList();
-      final var configs = new ArrayList<ProgramMapConfig>(configFiles.size());
-      for (final var configFile : configFiles) {
-        final byte[] configData = Files.readAllBytes(configFile);
-        final var ji = JsonIterator.parse(configData);
-        final var programMapConfig = ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji);
-        configs.add(programMapConfig);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static List<ProgramMapConfig> parseConfigFiles(final List<Path> configFiles,
+                                                 final ExecutorService executorService,
+                                                 final CompiledConfigCache compiledConfigCache,
+                                                 final Map<AccountMeta, AccountMeta> accountMetaCache,
+                                                 final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    final var futureConfigs = configFiles.stream()
+        .map(configFile -> CompletableFuture.supplyAsync(
+            () -> parseConfigFile(configFile, compiledConfigCache, accountMetaCache, indexedAccountMetaCache),
+            executorService
+        ))
+        .toList();
+    final var configs = new ArrayList<ProgramMapConfig>(configFiles.size());
+    try {
+      for (final var futureConfig : futureConfigs) {
+        configs.add(join(futureConfig));
+      }
+    } catch (final RuntimeException e) {
+      futureConfigs.forEach(futureConfig -> futureConfig.cancel(false));
+      throw e;
+    }
+    return configs;
+  }
+
+  static ProgramMapConfig parseConfigFile(final Path configFile,
+                                          final CompiledConfigCache compiledConfigCache,
+                                          final Map<AccountMeta, AccountMeta> accountMetaCache,
+                                          final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    try {
+      final byte[] configData = Files.readAllBytes(configFile);
+      if (compiledConfigCache != null) {
+        final var name = configFile.getFileName().toString();
+        return compiledConfigCache.load(name, configData, accountMetaCache, indexedAccountMetaCache);
       }
-      return configs;
+      final var ji = JsonIterator.parse(configData);
+      return ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji);
     } catch (final IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
+  /// Fetches all remote configs, see [RemoteConfigFetcher].
+  ///
+  /// @param executorService parses responses and writes cached files.
+  /// @param numThreads      the maximum number of concurrent requests.
   public List<ProgramMapConfig> loadRemoteConfigs(final ExecutorService executorService,
                                                   final int numThreads,
                                                   final HttpClient httpClient,
@@ -64,91 +173,55 @@ public record ConfigLoader(Path configDirectory, Set<ConfigResource> remoteConfi
                                                   final Duration maxDelay,
                                                   final int maxRetries) {
     if (remoteConfigs != null && !remoteConfigs.isEmpty()) {
-      if (cacheFiles && configDirectory == null) {
-        throw new IllegalStateException("configDirectory must not be null when cacheFiles is true.");
-      }
-      final var accountMetaCache = new HashMap<AccountMeta, AccountMeta>(256);
-      final var indexedAccountMetaCache = new HashMap<IndexedAccountMeta, IndexedAccountMeta>(256);
-
-      final int numRemoteConfigs = remoteConfigs.size();
-      final var workQueue = new ArrayBlockingQueue<ConfigResource>(numRemoteConfigs);
-      workQueue.addAll(remoteConfigs);
-      final long maxDelayMillis = maxDelay.toMillis();
-      final var futureResults = IntStream.range(0, numThreads)
-          .mapToObj(i -> new Worker(workQueue, httpClient, cacheFiles, configDirectory, maxDelayMillis, maxRetries, accountMetaCache, indexedAccountMetaCache))
-          .map(worker -> CompletableFuture.supplyAsync(worker, executorService))
-          .toList();
-
-      final var results = new ArrayList<ProgramMapConfig>(numRemoteConfigs);
-      for (final var futureResult : futureResults) {
-        results.addAll(futureResult.join());
-      }
-      return results;
+      final var fetcher = createRemoteConfigFetcher(executorService, numThreads, httpClient, cacheFiles, maxDelay, maxRetries);
+      return join(fetcher.fetchConfigs());
     } else {
       return List.of();
     }
   }
 
-  private record Worker(Queue<ConfigResource> workQueue,
-                        HttpClient httpClient,
-                        boolean cacheFiles,
-                        Path configDirectory,
-                        long maxDelayMillis,
-                        int maxRetries,
-                        Map<AccountMeta, AccountMeta> accountMetaCache,
-                        Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) implements Supplier<List<ProgramMapConfig>> {
+  /// Re-use the returned fetcher to skip downloading and parsing configs which have not been modified.
+  public RemoteConfigFetcher createRemoteConfigFetcher(final Executor executor,
+                                                       final int maxConcurrency,
+                                                       final HttpClient httpClient,
+                                                       final boolean cacheFiles,
+                                                       final Duration maxDelay,
+                                                       final int maxRetries) {
+    return createRemoteConfigFetcher(executor, maxConcurrency, httpClient, cacheFiles, maxDelay, maxRetries, null);
+  }
 
+  /// @param compiledConfigCache null to always parse fetched configs, otherwise unchanged configs are loaded from
+  ///                            their compiled artifact, see [CompiledConfigCache].
+  public RemoteConfigFetcher createRemoteConfigFetcher(final Executor executor,
+                                                       final int maxConcurrency,
+                                                       final HttpClient httpClient,
+                                                       final boolean cacheFiles,
+                                                       final Duration maxDelay,
+                                                       final int maxRetries,
+                                                       final CompiledConfigCache compiledConfigCache) {
+    if (cacheFiles && configDirectory == null) {
+      throw new IllegalStateException("configDirectory must not be null when cacheFiles is true.");
+    }
+    return new RemoteConfigFetcher(
+        remoteConfigs == null ? List.of() : remoteConfigs,
+        httpClient,
+        executor,
+        maxConcurrency,
+        cacheFiles ? configDirectory : null,
+        maxDelay.toMillis(),
+        maxRetries,
+        compiledConfigCache
+    );
+  }
 
-    @Override
-    public List<ProgramMapConfig> get() {
-      final var results = new ArrayList<ProgramMapConfig>();
-      try {
-        for (; ; ) {
-          final var configResource = workQueue.poll();
-          if (configResource == null) {
-            return results;
-          }
-          final var request = HttpRequest.newBuilder(configResource.uri).GET().build();
-          for (long errorCount = 0; ; ) {
-
-            final byte[] responseData;
-            try {
-              final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
-              responseData = response.body();
-            } catch (final IOException e) {
-              if (++errorCount > maxRetries) {
-                throw new UncheckedIOException(e);
-              }
-              final long delayMillis = Math.min(maxDelayMillis, TimeUnit.SECONDS.toMillis((errorCount << 1) - 1));
-              logger.log(System.Logger.Level.WARNING, String.format("""
-                      Failed %d time(s) to fetch remote config %s.
-                      Retrying in %dms.
-                      """, errorCount, configResource, delayMillis
-                  )
-              );
-              Thread.sleep(delayMillis);
-              continue;
-            }
-
-            final var ji = JsonIterator.parse(responseData);
-            final var programMapConfig = ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji);
-            results.add(programMapConfig);
-
-            if (cacheFiles) {
-              final var configFile = configDirectory.resolve(configResource.fileName);
-              try {
-                Files.write(configFile, responseData, CREATE, WRITE, TRUNCATE_EXISTING);
-              } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-              }
-            }
-            break;
-          }
-        }
-      } catch (final InterruptedException e) {
-        Thread.currentThread().interrupt();
-        return results;
+  private static <T> T join(final CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
       }
+      throw e;
     }
   }
 
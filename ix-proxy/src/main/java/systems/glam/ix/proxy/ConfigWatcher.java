@@ -0,0 +1,226 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/// Watches a local config directory and publishes a new immutable [TransactionMapper] snapshot whenever mapping config
+/// files are created, modified or deleted.
+///
+/// Only changed files are re-parsed and have their [ProgramProxy]'s rebuilt. Snapshots are published through a single
+/// volatile reference, mapping threads never block and never observe a partially built mapper. Callers which need a
+/// consistent view across several calls should hold on to a single [#transactionMapper()] snapshot.
+///
+/// A file which fails to parse is logged and its previous version is retained. Run the watcher on a dedicated thread
+/// and [#close()] it to stop watching.
+///
+/// Account metas are interned across files. A full reload starts from fresh intern pools, and incremental reloads
+/// rebuild them from the configs still in use, so that replaced configs do not accumulate in the pools.
+public final class ConfigWatcher<A> implements Runnable, AutoCloseable {
+
+  private static final System.Logger logger = System.getLogger(ConfigWatcher.class.getName());
+
+  /// Events arriving within this window of each other are applied as a single reload.
+  private static final long DEBOUNCE_MILLIS = 50;
+
+  private final Path configDirectory;
+  private final AccountMeta invokedProxyProgram;
+  private final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory;
+  private final WatchService watchService;
+  // Only accessed by the watching thread once created.
+  private Map<AccountMeta, AccountMeta> accountMetaCache;
+  private Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache;
+  private final Map<Path, FileConfig<A>> configsByFile;
+
+  private volatile TransactionMapper<A> transactionMapper;
+
+  private ConfigWatcher(final Path configDirectory,
+                        final AccountMeta invokedProxyProgram,
+                        final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory,
+                        final WatchService watchService) {
+    this.configDirectory = configDirectory;
+    this.invokedProxyProgram = invokedProxyProgram;
+    this.dynamicAccountFactory = dynamicAccountFactory;
+    this.watchService = watchService;
+    this.configsByFile = new TreeMap<>();
+  }
+
+  private record FileConfig<A>(ProgramMapConfig config, Collection<ProgramProxy<A>> programProxies) {
+  }
+
+  static <A> ConfigWatcher<A> createWatcher(final Path configDirectory,
+                                            final AccountMeta invokedProxyProgram,
+                                            final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory) {
+    final WatchService watchService;
+    try {
+      watchService = configDirectory.getFileSystem().newWatchService();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    final var watcher = new ConfigWatcher<>(configDirectory, invokedProxyProgram, dynamicAccountFactory, watchService);
+    try {
+      // Register before loading so that no change is missed in between.
+      watcher.registerDirectories(configDirectory);
+      watcher.loadConfigs();
+      return watcher;
+    } catch (final RuntimeException e) {
+      watcher.close();
+      throw e;
+    }
+  }
+
+  /// @return the latest published snapshot.
+  public TransactionMapper<A> transactionMapper() {
+    return transactionMapper;
+  }
+
+  private void registerDirectories(final Path directory) {
+    try (final var paths = Files.walk(directory)) {
+      for (final var path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+        path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void loadConfigs() {
+    this.accountMetaCache = ConfigLoader.createAccountMetaPool();
+    this.indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    final var configFiles = ConfigLoader.listConfigFiles(configDirectory);
+    final var configs = ConfigLoader.parseConfigFiles(
+        configFiles,
+        ForkJoinPool.commonPool(),
+        null,
+        accountMetaCache,
+        indexedAccountMetaCache
+    );
+    configsByFile.clear();
+    for (int i = 0; i < configs.size(); ++i) {
+      configsByFile.put(configFiles.get(i), createFileConfig(configs.get(i)));
+    }
+    publish();
+  }
+
+  private FileConfig<A> createFileConfig(final ProgramMapConfig programMapConfig) {
+    return new FileConfig<>(
+        programMapConfig,
+        programMapConfig.createProgramProxies(invokedProxyProgram, dynamicAccountFactory)
+    );
+  }
+
+  private void pruneInternPools() {
+    final var configs = new ArrayList<ProgramMapConfig>(configsByFile.size());
+    for (final var fileConfig : configsByFile.values()) {
+      configs.add(fileConfig.config);
+    }
+    final var accountMetaCache = ConfigLoader.createAccountMetaPool();
+    final var indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    ConfigLoader.internStaticAccounts(configs, accountMetaCache, indexedAccountMetaCache);
+    this.accountMetaCache = accountMetaCache;
+    this.indexedAccountMetaCache = indexedAccountMetaCache;
+  }
+
+  private void publish() {
+    final var programProxies = new HashMap<PublicKey, ProgramProxy<A>>(configsByFile.size() << 1);
+    for (final var fileConfig : configsByFile.values()) {
+      for (final var programProxy : fileConfig.programProxies) {
+        programProxies.put(programProxy.cpiProgram(), programProxy);
+      }
+    }
+    this.transactionMapper = TransactionMapper.createMapper(invokedProxyProgram.publicKey(), programProxies);
+  }
+
+  private boolean reloadConfigFile(final Path configFile) {
+    try {
+      final var programMapConfig = ConfigLoader.parseConfigFile(configFile, null, accountMetaCache, indexedAccountMetaCache);
+      configsByFile.put(configFile, createFileConfig(programMapConfig));
+      return true;
+    } catch (final RuntimeException e) {
+      logger.log(System.Logger.Level.WARNING, String.format(
+          "Failed to reload mapping config %s, retaining the previous version.", configFile
+      ), e);
+      return false;
+    }
+  }
+
+  private void reload(final Set<Path> changedPaths) {
+    boolean changed = false;
+    for (final var path : changedPaths) {
+      if (Files.isDirectory(path)) {
+        registerDirectories(path);
+        for (final var configFile : ConfigLoader.listConfigFiles(path)) {
+          changed |= reloadConfigFile(configFile);
+        }
+      } else if (Files.isRegularFile(path)) {
+        if (ConfigLoader.isConfigFile(path)) {
+          changed |= reloadConfigFile(path);
+        }
+      } else {
+        changed |= configsByFile.keySet().removeIf(configFile -> configFile.startsWith(path));
+      }
+    }
+    if (changed) {
+      pruneInternPools();
+      publish();
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      for (; ; ) {
+        var key = watchService.take();
+        final var changedPaths = new HashSet<Path>();
+        boolean overflow = false;
+        do {
+          final var directory = (Path) key.watchable();
+          for (final var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+              overflow = true;
+            } else {
+              changedPaths.add(directory.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+          key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        } while (key != null);
+
+        try {
+          if (overflow) {
+            registerDirectories(configDirectory);
+            loadConfigs();
+          } else {
+            reload(changedPaths);
+          }
+        } catch (final RuntimeException e) {
+          logger.log(System.Logger.Level.WARNING, String.format(
+              "Failed to reload mapping configs from %s.", configDirectory
+          ), e);
+        }
+      }
+    } catch (final ClosedWatchServiceException e) {
+      // closed
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      watchService.close();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
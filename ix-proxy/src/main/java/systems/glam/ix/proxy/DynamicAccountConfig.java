@@ -13,9 +13,7 @@ public record DynamicAccountConfig(String name,
                                    boolean signer) {
 
   public static DynamicAccountConfig parseConfig(final JsonIterator ji) {
-    final var parser = new Parser();
-    ji.testObject(parser);
-    return parser.create();
+    return new Parser().parse(ji);
   }
 
   public AccountMeta createMeta(final PublicKey publicKey) {
@@ -30,18 +28,31 @@ public record DynamicAccountConfig(String name,
     return new IndexedCpiProgram<>(index);
   }
 
-  private static final class Parser implements FieldBufferPredicate {
+  /// For runtime accounts provided as an array, e.g. slot 0 holds the read-only state account and slot 1 the writable
+  /// vault account.
+  public DynamicAccount<AccountMeta[]> createRuntimeAccount(final int slot) {
+    return new IndexedRuntimeAccount(index, slot);
+  }
+
+  /// Re-usable across array elements, each [#parse] resets the parsed fields.
+  static final class Parser implements FieldBufferPredicate {
 
     private String name;
     private int index;
     private boolean writable;
     private boolean signer;
 
-    private Parser() {
+    Parser() {
     }
 
-    private DynamicAccountConfig create() {
-      return new DynamicAccountConfig(name, index, writable, signer);
+    DynamicAccountConfig parse(final JsonIterator ji) {
+      ji.testObject(this);
+      final var config = new DynamicAccountConfig(name, index, writable, signer);
+      this.name = null;
+      this.index = 0;
+      this.writable = false;
+      this.signer = false;
+      return config;
     }
 
     @Override
@@ -7,7 +7,7 @@ import software.sava.core.tx.Instruction;
 final class IdentityIxProxy<A> extends BaseIxProxy<A> {
 
   IdentityIxProxy(final Discriminator cpiDiscriminator) {
-    super(cpiDiscriminator);
+    super(cpiDiscriminator, IDENTITY);
   }
 
   @Override
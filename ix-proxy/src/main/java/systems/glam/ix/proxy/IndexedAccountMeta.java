@@ -10,9 +10,7 @@ public interface IndexedAccountMeta {
   static IndexedAccountMeta parseConfig(final Map<AccountMeta, AccountMeta> accountMetaCache,
                                         final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache,
                                         final JsonIterator ji) {
-    final var parser = new IndexedAccountMetaRecord.Parser(accountMetaCache, indexedAccountMetaCache);
-    ji.testObject(parser);
-    return parser.create();
+    return new IndexedAccountMetaRecord.Parser(accountMetaCache, indexedAccountMetaCache).parse(ji);
   }
 
   void setAccount(final AccountMeta[] accounts);
@@ -17,6 +17,7 @@ record IndexedAccountMetaRecord(AccountMeta accountMeta, int index) implements I
     accounts[index] = accountMeta;
   }
 
+  /// Re-usable across array elements, each [#parse] resets the parsed fields.
   static final class Parser implements FieldBufferPredicate {
 
     private final Map<AccountMeta, AccountMeta> accountMetaCache;
@@ -33,7 +34,17 @@ record IndexedAccountMetaRecord(AccountMeta accountMeta, int index) implements I
       this.indexedAccountMetaCache = indexedAccountMetaCache;
     }
 
-    IndexedAccountMeta create() {
+    IndexedAccountMeta parse(final JsonIterator ji) {
+      ji.testObject(this);
+      final var indexedMeta = create();
+      this.account = null;
+      this.index = 0;
+      this.writable = false;
+      this.signer = false;
+      return indexedMeta;
+    }
+
+    private IndexedAccountMeta create() {
       final var accountMeta = AccountMeta.createMeta(account, writable, signer);
       final var cachedMeta = accountMetaCache.putIfAbsent(accountMeta, accountMeta);
 
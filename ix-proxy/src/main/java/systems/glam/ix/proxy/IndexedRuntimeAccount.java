@@ -0,0 +1,25 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+
+/// Places the runtime account at `slot` of the caller provided runtime accounts array at `index`.
+/// Instruction proxies resolve these without a virtual call, see [DynamicAccountConfig#createRuntimeAccount(int)].
+public record IndexedRuntimeAccount(int index, int slot) implements DynamicAccount<AccountMeta[]> {
+
+  /// Negative slots are reserved for the fee payer and CPI program, see [IxProxyRecord].
+  public IndexedRuntimeAccount {
+    if (slot < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Runtime account slot must be non-negative, but was %d.", slot
+      ));
+    }
+  }
+
+  @Override
+  public void setAccount(final AccountMeta[] mappedAccounts,
+                         final AccountMeta cpiProgram,
+                         final AccountMeta feePayer,
+                         final AccountMeta[] runtimeAccounts) {
+    mappedAccounts[index] = runtimeAccounts[slot];
+  }
+}
@@ -23,12 +23,34 @@ public record IxMapConfig(ProxyType proxyType,
     PAYER
   }
 
+  static IxMapConfig createConfig(final boolean payerType,
+                                  final String cpiIxName,
+                                  final Discriminator cpiDiscriminator,
+                                  final String proxyIxName,
+                                  final Discriminator proxyDiscriminator,
+                                  final List<DynamicAccountConfig> dynamicAccounts,
+                                  final List<IndexedAccountMeta> staticAccounts,
+                                  final int[] indexMap) {
+    return new IxMapConfig(
+        payerType ? ProxyType.PAYER : null,
+        cpiIxName,
+        cpiDiscriminator,
+        proxyIxName,
+        proxyDiscriminator,
+        dynamicAccounts,
+        staticAccounts,
+        indexMap
+    );
+  }
+
+  boolean payerType() {
+    return proxyType == ProxyType.PAYER;
+  }
+
   public static IxMapConfig parseConfig(final Map<AccountMeta, AccountMeta> accountMetaCache,
                                         final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache,
                                         final JsonIterator ji) {
-    final var parser = new Parser(accountMetaCache, indexedAccountMetaCache);
-    ji.testObject(parser);
-    return parser.create();
+    return new Parser(accountMetaCache, indexedAccountMetaCache).parse(ji);
   }
 
   public <A> IxProxy<A> createProxy(final AccountMeta invokedProxyProgram,
@@ -63,6 +85,16 @@ public record IxMapConfig(ProxyType proxyType,
         throw new IllegalStateException("Invalid configuration: Only one or none dynamic accounts is supported for IxMapConfig without a proxy discriminator.");
       }
     } else {
+      final int[] dynamicIndexes = new int[dynamicAccounts.size()];
+      for (int i = 0; i < dynamicIndexes.length; ++i) {
+        dynamicIndexes[i] = dynamicAccounts.get(i).index();
+      }
+      IxProxyRecord.validateIndexes(
+          IxProxyRecord.numAccounts(dynamicIndexes.length, staticAccounts.size(), indexMap),
+          dynamicIndexes,
+          staticAccounts,
+          indexMap
+      );
       return IxProxy.createProxy(
           invokedProxyProgram,
           cpiDiscriminator,
@@ -74,14 +106,20 @@ public record IxMapConfig(ProxyType proxyType,
     }
   }
 
-  private static final class Parser implements FieldBufferPredicate {
+  /// Reads each array in a single pass into growable scratch buffers, which along with the nested parsers are re-used
+  /// for every instruction config parsed by the same instance. Not thread safe.
+  static final class Parser implements FieldBufferPredicate {
 
     private static final List<DynamicAccountConfig> NO_DYNAMIC_ACCOUNTS = List.of();
     private static final List<IndexedAccountMeta> NO_STATIC_ACCOUNTS = List.of();
     private static final int[] NO_INDEX_MAP = new int[0];
 
-    private final Map<AccountMeta, AccountMeta> accountMetaCache;
-    private final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache;
+    private final DynamicAccountConfig.Parser dynamicAccountParser;
+    private final IndexedAccountMetaRecord.Parser staticAccountParser;
+    private final ArrayList<DynamicAccountConfig> dynamicAccountBuffer;
+    private final ArrayList<IndexedAccountMeta> staticAccountBuffer;
+    private byte[] byteBuffer;
+    private int[] intBuffer;
 
     private ProxyType type;
     private String cpiIxName;
@@ -92,10 +130,28 @@ public record IxMapConfig(ProxyType proxyType,
     private List<IndexedAccountMeta> staticAccounts;
     private int[] indexMap;
 
-    private Parser(final Map<AccountMeta, AccountMeta> accountMetaCache,
-                   final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
-      this.accountMetaCache = accountMetaCache;
-      this.indexedAccountMetaCache = indexedAccountMetaCache;
+    Parser(final Map<AccountMeta, AccountMeta> accountMetaCache,
+           final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+      this.dynamicAccountParser = new DynamicAccountConfig.Parser();
+      this.staticAccountParser = new IndexedAccountMetaRecord.Parser(accountMetaCache, indexedAccountMetaCache);
+      this.dynamicAccountBuffer = new ArrayList<>();
+      this.staticAccountBuffer = new ArrayList<>();
+      this.byteBuffer = new byte[16];
+      this.intBuffer = new int[16];
+    }
+
+    IxMapConfig parse(final JsonIterator ji) {
+      ji.testObject(this);
+      final var ixMapConfig = create();
+      this.type = null;
+      this.cpiIxName = null;
+      this.cpiDiscriminator = null;
+      this.proxyIxName = null;
+      this.proxyDiscriminator = null;
+      this.dynamicAccounts = null;
+      this.staticAccounts = null;
+      this.indexMap = null;
+      return ixMapConfig;
     }
 
     private IxMapConfig create() {
@@ -111,19 +167,26 @@ public record IxMapConfig(ProxyType proxyType,
       );
     }
 
-    private static Discriminator parseDiscriminator(final JsonIterator ji) {
+    private Discriminator parseDiscriminator(final JsonIterator ji) {
       int i = 0;
-      final int mark = ji.mark();
-      while (ji.readArray()) {
-        ji.skip();
-        ++i;
+      for (; ji.readArray(); ++i) {
+        if (i == byteBuffer.length) {
+          byteBuffer = Arrays.copyOf(byteBuffer, i << 1);
+        }
+        byteBuffer[i] = (byte) ji.readInt();
       }
-      final byte[] discriminator = new byte[i];
-      ji.reset(mark);
-      for (i = 0; ji.readArray(); ++i) {
-        discriminator[i] = (byte) ji.readInt();
+      return Discriminator.createDiscriminator(Arrays.copyOf(byteBuffer, i));
+    }
+
+    private int[] parseIndexMap(final JsonIterator ji) {
+      int i = 0;
+      for (; ji.readArray(); ++i) {
+        if (i == intBuffer.length) {
+          intBuffer = Arrays.copyOf(intBuffer, i << 1);
+        }
+        intBuffer[i] = ji.readInt();
       }
-      return Discriminator.createDiscriminator(discriminator);
+      return i == 0 ? NO_INDEX_MAP : Arrays.copyOf(intBuffer, i);
     }
 
     @Override
@@ -139,33 +202,19 @@ public record IxMapConfig(ProxyType proxyType,
       } else if (fieldEquals("dst_discriminator", buf, offset, len)) {
         proxyDiscriminator = parseDiscriminator(ji);
       } else if (fieldEquals("dynamic_accounts", buf, offset, len)) {
-        final var dynamicAccounts = new ArrayList<DynamicAccountConfig>();
         while (ji.readArray()) {
-          dynamicAccounts.add(DynamicAccountConfig.parseConfig(ji));
+          dynamicAccountBuffer.add(dynamicAccountParser.parse(ji));
         }
-        this.dynamicAccounts = dynamicAccounts.isEmpty() ? NO_DYNAMIC_ACCOUNTS : List.copyOf(dynamicAccounts);
+        this.dynamicAccounts = dynamicAccountBuffer.isEmpty() ? NO_DYNAMIC_ACCOUNTS : List.copyOf(dynamicAccountBuffer);
+        dynamicAccountBuffer.clear();
       } else if (fieldEquals("static_accounts", buf, offset, len)) {
-        final var staticAccounts = new ArrayList<IndexedAccountMeta>();
         while (ji.readArray()) {
-          staticAccounts.add(IndexedAccountMeta.parseConfig(accountMetaCache, indexedAccountMetaCache, ji));
+          staticAccountBuffer.add(staticAccountParser.parse(ji));
         }
-        this.staticAccounts = staticAccounts.isEmpty() ? NO_STATIC_ACCOUNTS : List.copyOf(staticAccounts);
+        this.staticAccounts = staticAccountBuffer.isEmpty() ? NO_STATIC_ACCOUNTS : List.copyOf(staticAccountBuffer);
+        staticAccountBuffer.clear();
       } else if (fieldEquals("index_map", buf, offset, len)) {
-        int i = 0;
-        final int mark = ji.mark();
-        for (; ji.readArray(); ++i) {
-          ji.skip();
-        }
-        if (i > 0) {
-          ji.reset(mark);
-          final int[] indexMap = new int[i];
-          for (i = 0; ji.readArray(); ++i) {
-            indexMap[i] = ji.readInt();
-          }
-          this.indexMap = indexMap;
-        } else {
-          this.indexMap = NO_INDEX_MAP;
-        }
+        this.indexMap = parseIndexMap(ji);
       } else {
         throw new IllegalStateException("Unknown IxMapConfig field " + new String(buf, offset, len));
       }
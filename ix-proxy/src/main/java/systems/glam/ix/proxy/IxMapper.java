@@ -4,6 +4,8 @@ package systems.glam.ix.proxy;
 import software.sava.core.accounts.meta.AccountMeta;
 import software.sava.core.tx.Instruction;
 
+import java.util.List;
+
 public interface IxMapper<A> {
 
   Instruction mapInstruction(final AccountMeta feePayer,
@@ -14,4 +16,47 @@ public interface IxMapper<A> {
   Instruction mapInstructionUnchecked(final AccountMeta feePayer,
                                       final A runtimeAccounts,
                                       final Instruction instruction);
+
+  /// Equivalent of [#mapInstruction] which allocates mapped instruction data from the given arena. By default, the arena
+  /// is not used.
+  default Instruction mapInstruction(final AccountMeta feePayer,
+                                     final A runtimeAccounts,
+                                     final Instruction instruction,
+                                     final MappingArena arena) {
+    return mapInstruction(feePayer, runtimeAccounts, instruction);
+  }
+
+  /// Maps the instruction once for each of the given runtime accounts, e.g. one per vault. By default, each is mapped
+  /// individually via [#mapInstruction]. Program proxies created by this library share the proxy lookup, validation,
+  /// mapped instruction data and every account which does not depend on the runtime accounts. The returned instructions
+  /// may therefore share the same data array, which must not be modified.
+  ///
+  /// @return the mapped instructions, in the order of `runtimeAccounts`.
+  default Instruction[] fanOutInstruction(final AccountMeta feePayer,
+                                          final List<A> runtimeAccounts,
+                                          final Instruction instruction) {
+    final var mappedInstructions = new Instruction[runtimeAccounts.size()];
+    int i = 0;
+    for (final var accounts : runtimeAccounts) {
+      mappedInstructions[i++] = mapInstruction(feePayer, accounts, instruction);
+    }
+    return mappedInstructions;
+  }
+
+  /// Validating equivalent of [#mapInstruction] which does not throw if the instruction cannot be mapped.
+  ///
+  /// By default, [#mapInstruction] failures are recorded as [MappingStatus#MAPPING_FAILED].
+  ///
+  /// @return the mapped instruction, or null if it could not be mapped, in which case the reason is recorded in
+  /// `result`.
+  default Instruction tryMapInstruction(final AccountMeta feePayer,
+                                        final A runtimeAccounts,
+                                        final Instruction instruction,
+                                        final MappingResult result) {
+    try {
+      return mapInstruction(feePayer, runtimeAccounts, instruction);
+    } catch (final IllegalStateException e) {
+      return result.mappingFailed(e, instruction);
+    }
+  }
 }
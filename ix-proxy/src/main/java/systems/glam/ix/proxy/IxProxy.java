@@ -6,7 +6,7 @@ import software.sava.core.tx.Instruction;
 
 import java.util.List;
 
-public interface IxProxy<A> {
+public sealed interface IxProxy<A> permits BaseIxProxy {
 
   static <A> IxProxy<A> createProxy(final AccountMeta invokedProxyProgram,
                                     final Discriminator cpiDiscriminator,
@@ -14,12 +14,6 @@ public interface IxProxy<A> {
                                     final List<DynamicAccount<A>> dynamicAccounts,
                                     final List<IndexedAccountMeta> staticAccounts,
                                     final int[] indexes) {
-    int numRemoved = 0;
-    for (final int index : indexes) {
-      if (index < 0) {
-        ++numRemoved;
-      }
-    }
     return new IxProxyRecord<>(
         invokedProxyProgram,
         cpiDiscriminator,
@@ -27,7 +21,7 @@ public interface IxProxy<A> {
         dynamicAccounts,
         staticAccounts,
         indexes,
-        dynamicAccounts.size() + staticAccounts.size() + (indexes.length - numRemoved)
+        IxProxyRecord.numAccounts(dynamicAccounts.size(), staticAccounts.size(), indexes)
     );
   }
 
@@ -36,12 +30,46 @@ public interface IxProxy<A> {
                              final A runtimeAccounts,
                              final Instruction instruction);
 
+  /// Only validates the expected program id, the instruction discriminator must already be known to match, e.g. by
+  /// having been resolved through [ProgramProxy#lookupProxy(Instruction)].
+  Instruction mapMatchedInstruction(final AccountMeta readCpiProgram,
+                                    final AccountMeta feePayer,
+                                    final A runtimeAccounts,
+                                    final Instruction instruction);
+
+  /// Equivalent of [#mapMatchedInstruction] for each of the given runtime accounts, see [IxMapper#fanOutInstruction].
+  Instruction[] fanOutMatchedInstruction(final AccountMeta readCpiProgram,
+                                         final AccountMeta feePayer,
+                                         final List<A> runtimeAccounts,
+                                         final Instruction instruction);
+
+  /// Equivalent of [#mapMatchedInstruction] which records failures in `result` and returns null instead of throwing.
+  Instruction tryMapMatchedInstruction(final AccountMeta readCpiProgram,
+                                       final AccountMeta feePayer,
+                                       final A runtimeAccounts,
+                                       final Instruction instruction,
+                                       final MappingResult result);
+
   /// Does not validate the expected program id or discriminators from the given instruction.
   Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
                                       final AccountMeta feePayer,
                                       final A runtimeAccounts,
                                       final Instruction instruction);
 
+  /// Equivalent of [#mapMatchedInstruction] which allocates the mapped instruction data from the given arena.
+  Instruction mapMatchedInstruction(final AccountMeta readCpiProgram,
+                                    final AccountMeta feePayer,
+                                    final A runtimeAccounts,
+                                    final Instruction instruction,
+                                    final MappingArena arena);
+
+  /// Equivalent of [#mapInstructionUnchecked] which allocates the mapped instruction data from the given arena.
+  Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
+                                      final AccountMeta feePayer,
+                                      final A runtimeAccounts,
+                                      final Instruction instruction,
+                                      final MappingArena arena);
+
   Discriminator cpiDiscriminator();
 
   boolean matchesCpiDiscriminator(final byte[] instructionData,
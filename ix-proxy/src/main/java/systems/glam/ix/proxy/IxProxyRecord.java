@@ -9,6 +9,9 @@ import java.util.List;
 
 final class IxProxyRecord<A> extends BaseIxProxy<A> {
 
+  private static final int FEE_PAYER_SLOT = -1;
+  private static final int CPI_PROGRAM_SLOT = -2;
+
   private final AccountMeta invokedProxyProgram;
   private final Discriminator proxyDiscriminator;
   final List<DynamicAccount<A>> dynamicAccounts;
@@ -17,6 +20,18 @@ final class IxProxyRecord<A> extends BaseIxProxy<A> {
   private final int numAccounts;
   private final int lengthDelta;
 
+  /// Static accounts pre-placed at their mapped index, cloned for each mapping.
+  private final AccountMeta[] accountsTemplate;
+  /// Dynamic accounts which cannot be resolved to a slot.
+  private final DynamicAccount<A>[] dynamicAccountArray;
+  /// Mapped account indexes and their source slot for fee payer, CPI program and [IndexedRuntimeAccount] accounts.
+  private final int[] slotIndexes;
+  private final int[] accountSlots;
+  /// Source and destination account indexes for each retained source account.
+  private final int[] srcIndexes;
+  private final int[] dstIndexes;
+
+  @SuppressWarnings("unchecked")
   IxProxyRecord(final AccountMeta invokedProxyProgram,
                 final Discriminator cpiDiscriminator,
                 final Discriminator proxyDiscriminator,
@@ -24,7 +39,7 @@ final class IxProxyRecord<A> extends BaseIxProxy<A> {
                 final List<IndexedAccountMeta> staticAccounts,
                 final int[] indexes,
                 final int numAccounts) {
-    super(cpiDiscriminator);
+    super(cpiDiscriminator, REMAP);
     this.invokedProxyProgram = invokedProxyProgram;
     this.proxyDiscriminator = proxyDiscriminator;
     this.dynamicAccounts = dynamicAccounts;
@@ -32,57 +47,243 @@ final class IxProxyRecord<A> extends BaseIxProxy<A> {
     this.indexes = indexes;
     this.numAccounts = numAccounts;
     this.lengthDelta = proxyDiscriminator.length() - cpiDiscriminator.length();
-  }
-
-  @Override
-  public Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
-                                             final AccountMeta feePayer,
-                                             final A runtimeAccounts,
-                                             final Instruction instruction) {
-    final var accounts = instruction.accounts();
-    final int numAccounts = accounts.size();
-    final int numExtraAccounts = numAccounts - indexes.length;
 
-    final var mappedAccounts = new AccountMeta[this.numAccounts + numExtraAccounts];
+    final int numDynamicAccounts = dynamicAccounts.size();
+    final var dynamicAccountArray = new DynamicAccount[numDynamicAccounts];
+    final int[] slotIndexes = new int[numDynamicAccounts];
+    final int[] accountSlots = new int[numDynamicAccounts];
+    int numUnresolved = 0, numSlots = 0;
     for (final var dynamicAccount : dynamicAccounts) {
-      dynamicAccount.setAccount(mappedAccounts, readCpiProgram, feePayer, runtimeAccounts);
+      switch (dynamicAccount) {
+        case IndexedFeePayer<A> feePayer -> {
+          slotIndexes[numSlots] = feePayer.index();
+          accountSlots[numSlots++] = FEE_PAYER_SLOT;
+        }
+        case IndexedCpiProgram<A> cpiProgram -> {
+          slotIndexes[numSlots] = cpiProgram.index();
+          accountSlots[numSlots++] = CPI_PROGRAM_SLOT;
+        }
+        case IndexedRuntimeAccount runtimeAccount -> {
+          slotIndexes[numSlots] = runtimeAccount.index();
+          accountSlots[numSlots++] = runtimeAccount.slot();
+        }
+        default -> dynamicAccountArray[numUnresolved++] = dynamicAccount;
+      }
     }
+    this.dynamicAccountArray = Arrays.copyOf(dynamicAccountArray, numUnresolved);
+    this.slotIndexes = Arrays.copyOf(slotIndexes, numSlots);
+    this.accountSlots = Arrays.copyOf(accountSlots, numSlots);
+    // Dynamic accounts which are not resolved to a slot are validated from their config, see IxMapConfig#createProxy.
+    validateIndexes(numAccounts, this.slotIndexes, staticAccounts, indexes);
+
+    this.accountsTemplate = new AccountMeta[numAccounts];
     for (final var staticAccount : staticAccounts) {
-      staticAccount.setAccount(mappedAccounts);
+      staticAccount.setAccount(accountsTemplate);
     }
 
-    int s = 0, m;
-    for (; s < indexes.length; ++s) {
+    int numMoves = 0;
+    for (final int index : indexes) {
+      if (index >= 0) {
+        ++numMoves;
+      }
+    }
+    this.srcIndexes = new int[numMoves];
+    this.dstIndexes = new int[numMoves];
+    for (int s = 0, i = 0, m; s < indexes.length; ++s) {
       m = indexes[s];
       if (m >= 0) {
-        mappedAccounts[m] = accounts.get(s);
+        srcIndexes[i] = s;
+        dstIndexes[i] = m;
+        ++i;
+      }
+    }
+  }
+
+  static int numAccounts(final int numDynamicAccounts, final int numStaticAccounts, final int[] indexes) {
+    int numRetained = 0;
+    for (final int index : indexes) {
+      if (index >= 0) {
+        ++numRetained;
       }
     }
+    return numDynamicAccounts + numStaticAccounts + numRetained;
+  }
+
+  /// Each mapped account must be placed at a distinct index within the mapped accounts, so that the order in which
+  /// dynamic, static and source accounts are placed does not matter.
+  static void validateIndexes(final int numAccounts,
+                              final int[] dynamicIndexes,
+                              final List<IndexedAccountMeta> staticAccounts,
+                              final int[] indexes) {
+    final var placed = new boolean[numAccounts];
+    for (final int index : dynamicIndexes) {
+      place(placed, "dynamic", index);
+    }
+    for (final var staticAccount : staticAccounts) {
+      place(placed, "static", staticAccount.index());
+    }
+    for (final int index : indexes) {
+      if (index >= 0) {
+        place(placed, "index map", index);
+      }
+    }
+  }
+
+  private static void place(final boolean[] placed, final String source, final int index) {
+    if (index < 0 || index >= placed.length) {
+      throw new IllegalStateException(String.format(
+          "Invalid configuration: %s account index %d is out of range [0, %d).", source, index, placed.length
+      ));
+    } else if (placed[index]) {
+      throw new IllegalStateException(String.format(
+          "Invalid configuration: %s account index %d is already mapped.", source, index
+      ));
+    }
+    placed[index] = true;
+  }
+
+  @Override
+  protected int numRequiredAccounts() {
+    return indexes.length;
+  }
+
+  private List<AccountMeta> mapAccounts(final AccountMeta readCpiProgram,
+                                        final AccountMeta feePayer,
+                                        final A runtimeAccounts,
+                                        final Instruction instruction) {
+    final var mappedAccounts = copyTemplate(accountsTemplate, instruction);
+    placeDynamicAccounts(mappedAccounts, readCpiProgram, feePayer, runtimeAccounts);
+    placeSourceAccounts(instruction.accounts(), mappedAccounts);
+    return Arrays.asList(mappedAccounts);
+  }
+
+  /// Places each dynamic account followed by the fee payer, CPI program and runtime account slots.
+  private void placeDynamicAccounts(final AccountMeta[] mappedAccounts,
+                                    final AccountMeta readCpiProgram,
+                                    final AccountMeta feePayer,
+                                    final A runtimeAccounts) {
+    for (final var dynamicAccount : dynamicAccountArray) {
+      dynamicAccount.setAccount(mappedAccounts, readCpiProgram, feePayer, runtimeAccounts);
+    }
+    for (int i = 0; i < slotIndexes.length; ++i) {
+      final int slot = accountSlots[i];
+      mappedAccounts[slotIndexes[i]] = switch (slot) {
+        case FEE_PAYER_SLOT -> feePayer;
+        case CPI_PROGRAM_SLOT -> readCpiProgram;
+        // Only IndexedRuntimeAccount, which requires AccountMeta[] runtime accounts, resolves to a non-negative slot.
+        default -> ((AccountMeta[]) runtimeAccounts)[slot];
+      };
+    }
+  }
 
-    // Copy extra accounts.
-    m = this.numAccounts;
-    for (; s < numAccounts; ++s, ++m) {
+  /// Places each retained source account followed by any extra accounts.
+  private void placeSourceAccounts(final List<AccountMeta> accounts, final AccountMeta[] mappedAccounts) {
+    for (int i = 0; i < srcIndexes.length; ++i) {
+      mappedAccounts[dstIndexes[i]] = accounts.get(srcIndexes[i]);
+    }
+    for (int s = indexes.length, m = this.numAccounts, numAccounts = accounts.size(); s < numAccounts; ++s, ++m) {
       mappedAccounts[m] = accounts.get(s);
     }
+  }
+
+  private AccountMeta[] copyTemplate(final AccountMeta[] template, final Instruction instruction) {
+    final int numExtraAccounts = instruction.accounts().size() - indexes.length;
+    return numExtraAccounts == 0
+        ? template.clone()
+        : Arrays.copyOf(template, this.numAccounts + numExtraAccounts);
+  }
 
-    final int cpiDataLength = instruction.len();
-    final byte[] data = new byte[cpiDataLength + lengthDelta];
-    proxyDiscriminator.write(data, 0);
+  private void writeData(final Instruction instruction, final byte[] data, final int offset) {
+    proxyDiscriminator.write(data, offset);
 
     final int cpiDiscriminatorLength = cpiDiscriminator.length();
-    final int len = cpiDataLength - cpiDiscriminatorLength;
+    final int len = instruction.len() - cpiDiscriminatorLength;
     if (len > 0) {
       System.arraycopy(
           instruction.data(), instruction.offset() + cpiDiscriminatorLength,
-          data, proxyDiscriminator.length(), len
+          data, offset + proxyDiscriminator.length(), len
       );
     }
+  }
+
+  @Override
+  public Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
+                                             final AccountMeta feePayer,
+                                             final A runtimeAccounts,
+                                             final Instruction instruction) {
+    final var mappedAccounts = mapAccounts(readCpiProgram, feePayer, runtimeAccounts, instruction);
+    final byte[] data = new byte[instruction.len() + lengthDelta];
+    writeData(instruction, data, 0);
+    return Instruction.createInstruction(invokedProxyProgram, mappedAccounts, data);
+  }
+
+  @Override
+  public Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
+                                             final AccountMeta feePayer,
+                                             final A runtimeAccounts,
+                                             final Instruction instruction,
+                                             final MappingArena arena) {
+    final var mappedAccounts = mapAccounts(readCpiProgram, feePayer, runtimeAccounts, instruction);
+    final int dataLength = instruction.len() + lengthDelta;
+    final int offset = arena.allocate(dataLength);
+    final byte[] data = arena.buffer();
+    writeData(instruction, data, offset);
+    return Instruction.createInstruction(invokedProxyProgram, mappedAccounts, data, offset, dataLength);
+  }
+
+  /// Accounts which do not depend on the runtime accounts, along with the instruction data, are only mapped once. Mapped
+  /// account indexes are validated to be distinct, so placing them in a different order than [#mapAccounts] yields the
+  /// same accounts.
+  void fanOutInstructionUnchecked(final AccountMeta readCpiProgram,
+                                  final AccountMeta feePayer,
+                                  final List<A> runtimeAccountsList,
+                                  final Instruction instruction,
+                                  final Instruction[] mappedInstructions) {
+    final var sharedAccounts = copyTemplate(accountsTemplate, instruction);
+    for (int i = 0; i < slotIndexes.length; ++i) {
+      final int slot = accountSlots[i];
+      if (slot == FEE_PAYER_SLOT) {
+        sharedAccounts[slotIndexes[i]] = feePayer;
+      } else if (slot == CPI_PROGRAM_SLOT) {
+        sharedAccounts[slotIndexes[i]] = readCpiProgram;
+      }
+    }
+    placeSourceAccounts(instruction.accounts(), sharedAccounts);
+
+    final byte[] data = new byte[instruction.len() + lengthDelta];
+    writeData(instruction, data, 0);
+
+    int v = 0;
+    for (final var runtimeAccounts : runtimeAccountsList) {
+      final var mappedAccounts = sharedAccounts.clone();
+      for (final var dynamicAccount : dynamicAccountArray) {
+        dynamicAccount.setAccount(mappedAccounts, readCpiProgram, feePayer, runtimeAccounts);
+      }
+      for (int i = 0; i < slotIndexes.length; ++i) {
+        final int slot = accountSlots[i];
+        if (slot >= 0) {
+          mappedAccounts[slotIndexes[i]] = ((AccountMeta[]) runtimeAccounts)[slot];
+        }
+      }
+      mappedInstructions[v++] = Instruction.createInstruction(invokedProxyProgram, Arrays.asList(mappedAccounts), data);
+    }
+  }
+
+  /// @return the accounts template with every account which does not depend on the source instruction placed, see
+  /// [#mapBoundInstructionUnchecked].
+  AccountMeta[] bindAccounts(final AccountMeta readCpiProgram, final AccountMeta feePayer, final A runtimeAccounts) {
+    final var boundAccounts = accountsTemplate.clone();
+    placeDynamicAccounts(boundAccounts, readCpiProgram, feePayer, runtimeAccounts);
+    return boundAccounts;
+  }
 
-    return Instruction.createInstruction(
-        invokedProxyProgram,
-        Arrays.asList(mappedAccounts),
-        data
-    );
+  /// Only places the source accounts and copies the instruction data.
+  Instruction mapBoundInstructionUnchecked(final AccountMeta[] boundAccounts, final Instruction instruction) {
+    final var mappedAccounts = copyTemplate(boundAccounts, instruction);
+    placeSourceAccounts(instruction.accounts(), mappedAccounts);
+    final byte[] data = new byte[instruction.len() + lengthDelta];
+    writeData(instruction, data, 0);
+    return Instruction.createInstruction(invokedProxyProgram, Arrays.asList(mappedAccounts), data);
   }
 
   @Override
@@ -0,0 +1,89 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+import systems.comodal.jsoniter.JsonIterator;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/// Retains the raw JSON of a [ProgramMapConfig] until one of its programs is first looked up, at which point the
+/// config is fully parsed, the [ProgramProxy]'s for all of its programs are created once and the JSON is released.
+final class LazyProgramConfig<A> {
+
+  /// Released once materialized, only accessed while synchronized.
+  private byte[] configJson;
+  private final AccountMeta defaultInvokedProxyProgram;
+  private final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory;
+  private final Map<AccountMeta, AccountMeta> accountMetaCache;
+  private final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache;
+
+  private volatile Map<PublicKey, ProgramProxy<A>> programProxies;
+
+  private LazyProgramConfig(final byte[] configJson,
+                            final AccountMeta defaultInvokedProxyProgram,
+                            final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory,
+                            final Map<AccountMeta, AccountMeta> accountMetaCache,
+                            final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    this.configJson = configJson;
+    this.defaultInvokedProxyProgram = defaultInvokedProxyProgram;
+    this.dynamicAccountFactory = dynamicAccountFactory;
+    this.accountMetaCache = accountMetaCache;
+    this.indexedAccountMetaCache = indexedAccountMetaCache;
+  }
+
+  /// Only the program ids of each config are parsed up front. Account metas are interned through concurrent pools
+  /// because configs are materialized by whichever mapping thread first looks up one of their programs.
+  static <A> ProgramProxyTable<A> createLazyTable(final AccountMeta defaultInvokedProxyProgram,
+                                                  final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory,
+                                                  final Collection<byte[]> programMapConfigsJson) {
+    final var accountMetaCache = ConfigLoader.createAccountMetaPool();
+    final var indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    final var programProxyFactories = HashMap.<PublicKey, Supplier<ProgramProxy<A>>>newHashMap(programMapConfigsJson.size());
+    for (final byte[] configJson : programMapConfigsJson) {
+      final var lazyConfig = new LazyProgramConfig<>(
+          configJson,
+          defaultInvokedProxyProgram,
+          dynamicAccountFactory,
+          accountMetaCache,
+          indexedAccountMetaCache
+      );
+      for (final var program : ProgramMapConfig.parseProgramIds(JsonIterator.parse(configJson))) {
+        programProxyFactories.put(program, () -> lazyConfig.programProxy(program));
+      }
+    }
+    return ProgramProxyTable.createLazyTable(programProxyFactories);
+  }
+
+  private Map<PublicKey, ProgramProxy<A>> materialize() {
+    final var programMapConfig = ProgramMapConfig.parseConfig(
+        accountMetaCache,
+        indexedAccountMetaCache,
+        JsonIterator.parse(configJson)
+    );
+    final var programProxyCollection = programMapConfig.createProgramProxies(defaultInvokedProxyProgram, dynamicAccountFactory);
+    final var programProxies = HashMap.<PublicKey, ProgramProxy<A>>newHashMap(programProxyCollection.size());
+    for (final var programProxy : programProxyCollection) {
+      programProxies.put(programProxy.cpiProgram(), programProxy);
+    }
+    return programProxies;
+  }
+
+  ProgramProxy<A> programProxy(final PublicKey program) {
+    var programProxies = this.programProxies;
+    if (programProxies == null) {
+      synchronized (this) {
+        programProxies = this.programProxies;
+        if (programProxies == null) {
+          programProxies = materialize();
+          this.programProxies = programProxies;
+          this.configJson = null;
+        }
+      }
+    }
+    return programProxies.get(program);
+  }
+}
@@ -0,0 +1,223 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/// Memoizes mapped instructions in front of a [TransactionMapper], so that structurally identical instructions
+/// re-submitted for the same runtime accounts return the previously mapped [Instruction] instance.
+///
+/// Entries are keyed on the program, accounts and data of the source instruction, along with the fee payer and the
+/// identity of the runtime accounts. Source instruction data is copied into the key, and into mapped instructions which
+/// would otherwise share it, callers may re-use their buffers. Mapped instructions are shared between callers and must
+/// not be modified.
+///
+/// At most `maxSize` entries are retained, evicting the least recently used, and entries expire `expireAfterWrite`
+/// after being mapped. Instructions for programs without a proxy are returned as is and are not cached. Thread safe,
+/// mapping on a miss happens outside the lock.
+public final class MappedInstructionCache<A> {
+
+  private final TransactionMapper<A> transactionMapper;
+  private final int maxSize;
+  private final long expireAfterWriteNanos;
+  private final LongSupplier nanoTime;
+  private final LinkedHashMap<Key, Entry> entries;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  MappedInstructionCache(final TransactionMapper<A> transactionMapper,
+                         final int maxSize,
+                         final Duration expireAfterWrite,
+                         final LongSupplier nanoTime) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive, but was " + maxSize);
+    }
+    this.transactionMapper = transactionMapper;
+    this.maxSize = maxSize;
+    this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+    this.nanoTime = nanoTime;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+        return size() > MappedInstructionCache.this.maxSize;
+      }
+    };
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  public MappedInstructionCache(final TransactionMapper<A> transactionMapper,
+                                final int maxSize,
+                                final Duration expireAfterWrite) {
+    this(transactionMapper, maxSize, expireAfterWrite, System::nanoTime);
+  }
+
+  private record Entry(Instruction mappedInstruction, long expiresAt) {
+  }
+
+  /// The data range is only copied for keys which are stored.
+  private static final class Key {
+
+    private final PublicKey program;
+    private final List<AccountMeta> accounts;
+    private final byte[] data;
+    private final int offset;
+    private final int len;
+    private final AccountMeta feePayer;
+    private final Object runtimeAccounts;
+    private final int hashCode;
+
+    private Key(final PublicKey program,
+                final List<AccountMeta> accounts,
+                final byte[] data,
+                final int offset,
+                final int len,
+                final AccountMeta feePayer,
+                final Object runtimeAccounts,
+                final int hashCode) {
+      this.program = program;
+      this.accounts = accounts;
+      this.data = data;
+      this.offset = offset;
+      this.len = len;
+      this.feePayer = feePayer;
+      this.runtimeAccounts = runtimeAccounts;
+      this.hashCode = hashCode;
+    }
+
+    static Key createKey(final AccountMeta feePayer, final Object runtimeAccounts, final Instruction instruction) {
+      final var program = instruction.programId().publicKey();
+      final var accounts = instruction.accounts();
+      final byte[] data = instruction.data();
+      final int offset = instruction.offset();
+      final int len = instruction.len();
+      int hashCode = program.hashCode();
+      hashCode = 31 * hashCode + accounts.hashCode();
+      for (int i = offset, end = offset + len; i < end; ++i) {
+        hashCode = 31 * hashCode + data[i];
+      }
+      hashCode = 31 * hashCode + feePayer.hashCode();
+      hashCode = 31 * hashCode + System.identityHashCode(runtimeAccounts);
+      return new Key(program, accounts, data, offset, len, feePayer, runtimeAccounts, hashCode);
+    }
+
+    Key copyData() {
+      return new Key(
+          program,
+          List.copyOf(accounts),
+          Arrays.copyOfRange(data, offset, offset + len), 0, len,
+          feePayer,
+          runtimeAccounts,
+          hashCode
+      );
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      return o instanceof Key key
+          && hashCode == key.hashCode
+          && runtimeAccounts == key.runtimeAccounts
+          && Arrays.equals(data, offset, offset + len, key.data, key.offset, key.offset + key.len)
+          && program.equals(key.program)
+          && feePayer.equals(key.feePayer)
+          && accounts.equals(key.accounts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private synchronized Instruction get(final Key key, final long now) {
+    final var entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    } else if (now - entry.expiresAt >= 0) {
+      entries.remove(key);
+      return null;
+    } else {
+      return entry.mappedInstruction;
+    }
+  }
+
+  private synchronized void put(final Key key, final Entry entry) {
+    entries.put(key, entry);
+  }
+
+  /// @see TransactionMapper#mapInstruction(AccountMeta, Object, Instruction)
+  public Instruction mapInstruction(final AccountMeta feePayer, final A runtimeAccounts, final Instruction instruction) {
+    if (transactionMapper.programProxy(instruction.programId().publicKey()) == null) {
+      return instruction;
+    }
+    final var key = Key.createKey(feePayer, runtimeAccounts, instruction);
+    final long now = nanoTime.getAsLong();
+    final var cached = get(key, now);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    final var mappedInstruction = ownedInstruction(
+        instruction,
+        transactionMapper.mapInstruction(feePayer, runtimeAccounts, instruction)
+    );
+    put(key.copyData(), new Entry(mappedInstruction, now + expireAfterWriteNanos));
+    return mappedInstruction;
+  }
+
+  /// Identity and payer proxies may return the source instruction, or build on its data and accounts, which the caller
+  /// is free to re-use. Cached instructions must not share either with the caller.
+  private static Instruction ownedInstruction(final Instruction instruction, final Instruction mappedInstruction) {
+    final byte[] data = mappedInstruction.data();
+    final var accounts = mappedInstruction.accounts();
+    if (data != instruction.data() && accounts != instruction.accounts()) {
+      return mappedInstruction;
+    }
+    final int offset = mappedInstruction.offset();
+    return Instruction.createInstruction(
+        mappedInstruction.programId(),
+        accounts == instruction.accounts() ? List.copyOf(accounts) : accounts,
+        data == instruction.data() ? Arrays.copyOfRange(data, offset, offset + mappedInstruction.len()) : data
+    );
+  }
+
+  public Instruction[] mapInstructions(final AccountMeta feePayer,
+                                       final A runtimeAccounts,
+                                       final List<Instruction> instructions) {
+    final var mappedInstructions = new Instruction[instructions.size()];
+    int i = 0;
+    for (final var instruction : instructions) {
+      mappedInstructions[i++] = mapInstruction(feePayer, runtimeAccounts, instruction);
+    }
+    return mappedInstructions;
+  }
+
+  public TransactionMapper<A> transactionMapper() {
+    return transactionMapper;
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+}
@@ -0,0 +1,48 @@
+package systems.glam.ix.proxy;
+
+/// Bump allocator for the data of mapped instructions.
+/// Mapped instructions reference slices of the arena's current chunk rather than their own array. When a chunk is
+/// exhausted a new one is started, previous chunks remain referenced by the instructions that use them.
+/// Instances are mutable and not thread safe, a single instance should be re-used per mapping thread.
+public final class MappingArena {
+
+  public static final int DEFAULT_CHUNK_SIZE = 8_192;
+
+  private final int chunkSize;
+  private byte[] buffer;
+  private int position;
+
+  public MappingArena(final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    this.buffer = new byte[chunkSize];
+  }
+
+  public MappingArena() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /// Re-uses the current chunk from the beginning.
+  /// Instructions previously mapped with this arena must no longer be in use, e.g. their transaction has already been
+  /// serialized.
+  public void reset() {
+    this.position = 0;
+  }
+
+  /// @return the offset of `length` reserved bytes within [#buffer()].
+  int allocate(final int length) {
+    if (position + length > buffer.length) {
+      this.buffer = new byte[Math.max(chunkSize, length)];
+      this.position = 0;
+    }
+    final int offset = position;
+    this.position += length;
+    return offset;
+  }
+
+  byte[] buffer() {
+    return buffer;
+  }
+}
@@ -0,0 +1,208 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Transaction;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// [Flow.Processor] pipeline stage which maps [Intent]'s with a [TransactionMapper] and publishes the mapped
+/// transactions, in arrival order, to its subscribers.
+///
+/// At most `bufferCapacity` intents are requested from upstream ahead of being mapped, and each subscriber has a buffer
+/// of the same capacity. Mapping runs on the given executor. Intents which arrive while a batch is being mapped are
+/// collected into the next batch, up to `maxBatchSize`, and upstream is only asked for more once a batch has been
+/// published. A `maxBatchSize` of one maps and requests intents one at a time. When a subscriber falls behind,
+/// publishing blocks the mapping task, which in turn stops requesting from upstream.
+///
+/// The executor runs both the mapping task and the delivery to subscribers. Because publishing blocks while a
+/// subscriber's buffer is full, a bounded pool with few threads, e.g. a single thread, can deadlock. Use a
+/// [java.util.concurrent.ForkJoinPool], such as the common pool, which compensates for blocked publishers, or a virtual
+/// thread per task executor.
+///
+/// Subscribe downstream before subscribing this processor upstream, transactions published without subscribers are
+/// dropped, see [SubmissionPublisher#submit]. The first mapping, publishing or request failure cancels upstream and is
+/// propagated to subscribers via [Flow.Subscriber#onError], transactions still buffered for a subscriber at that point
+/// may not be delivered.
+public final class MappingProcessor<A> extends SubmissionPublisher<Transaction>
+    implements Flow.Processor<MappingProcessor.Intent<A>, Transaction> {
+
+  /// @param feePayer null to retain the fee payer of the transaction.
+  public record Intent<A>(AccountMeta feePayer, A runtimeAccounts, Transaction transaction) {
+
+    public static <A> Intent<A> createIntent(final A runtimeAccounts, final Transaction transaction) {
+      return new Intent<>(null, runtimeAccounts, transaction);
+    }
+  }
+
+  private final TransactionMapper<A> transactionMapper;
+  private final Executor executor;
+  private final int bufferCapacity;
+  private final int maxBatchSize;
+  private final ConcurrentLinkedQueue<Intent<A>> pending;
+  private final AtomicInteger drainRequests;
+
+  private volatile Flow.Subscription subscription;
+  private volatile boolean upstreamDone;
+  private volatile Throwable upstreamError;
+
+  public MappingProcessor(final TransactionMapper<A> transactionMapper,
+                          final Executor executor,
+                          final int bufferCapacity,
+                          final int maxBatchSize) {
+    super(executor, bufferCapacity);
+    if (maxBatchSize <= 0 || maxBatchSize > bufferCapacity) {
+      throw new IllegalArgumentException(String.format(
+          "Max batch size must be in [1, %d], but was %d.", bufferCapacity, maxBatchSize
+      ));
+    }
+    this.transactionMapper = transactionMapper;
+    this.executor = executor;
+    this.bufferCapacity = bufferCapacity;
+    this.maxBatchSize = maxBatchSize;
+    this.pending = new ConcurrentLinkedQueue<>();
+    this.drainRequests = new AtomicInteger();
+  }
+
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    if (this.subscription != null) {
+      subscription.cancel();
+      return;
+    }
+    this.subscription = subscription;
+    subscription.request(bufferCapacity);
+  }
+
+  @Override
+  public void onNext(final Intent<A> intent) {
+    pending.offer(intent);
+    scheduleDrain();
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    this.upstreamError = throwable;
+    this.upstreamDone = true;
+    scheduleDrain();
+  }
+
+  @Override
+  public void onComplete() {
+    this.upstreamDone = true;
+    scheduleDrain();
+  }
+
+  /// Also cancels the upstream subscription.
+  @Override
+  public void close() {
+    cancelUpstream();
+    super.close();
+  }
+
+  @Override
+  public void closeExceptionally(final Throwable error) {
+    cancelUpstream();
+    super.closeExceptionally(error);
+  }
+
+  private void cancelUpstream() {
+    final var subscription = this.subscription;
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+
+  private void scheduleDrain() {
+    if (drainRequests.getAndIncrement() == 0) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private Transaction map(final Intent<A> intent) {
+    return intent.feePayer == null
+        ? transactionMapper.mapTransaction(intent.runtimeAccounts, intent.transaction)
+        : transactionMapper.mapTransaction(intent.feePayer, intent.runtimeAccounts, intent.transaction);
+  }
+
+  /// Only ever runs on a single thread at a time, which preserves the order of published transactions.
+  private void drain() {
+    final var batch = new ArrayList<Transaction>(maxBatchSize);
+    int missed = 1;
+    for (; ; ) {
+      try {
+        if (!isClosed()) {
+          drainPending(batch);
+        }
+        if (isClosed()) {
+          pending.clear();
+        } else if (upstreamDone && pending.isEmpty()) {
+          final var upstreamError = this.upstreamError;
+          if (upstreamError == null) {
+            super.close();
+          } else {
+            super.closeExceptionally(upstreamError);
+          }
+        }
+      } catch (final Throwable e) {
+        // Publishing, requesting from upstream or an Error thrown by the mapper. The drain request must still be
+        // released below, otherwise no later signal would ever schedule a drain.
+        closeExceptionally(e);
+        pending.clear();
+      }
+      missed = drainRequests.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  /// Maps and publishes batches until no intents are pending, mapping fails or this processor is closed.
+  private void drainPending(final ArrayList<Transaction> batch) {
+    for (Intent<A> intent; ; ) {
+      batch.clear();
+      RuntimeException failure = null;
+      while (batch.size() < maxBatchSize && (intent = pending.poll()) != null) {
+        try {
+          batch.add(map(intent));
+        } catch (final RuntimeException e) {
+          failure = e;
+          break;
+        }
+      }
+      for (final var transaction : batch) {
+        if (!publish(transaction)) {
+          return;
+        }
+      }
+      if (failure != null) {
+        closeExceptionally(failure);
+        return;
+      } else if (batch.isEmpty()) {
+        return;
+      }
+      subscription.request(batch.size());
+    }
+  }
+
+  /// @return false if this processor has been closed, which may happen concurrently via [#close] or
+  /// [#closeExceptionally].
+  private boolean publish(final Transaction transaction) {
+    if (isClosed()) {
+      return false;
+    }
+    try {
+      submit(transaction);
+      return true;
+    } catch (final IllegalStateException e) {
+      if (isClosed()) {
+        return false;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.tx.Instruction;
+
+import java.util.Base64;
+
+/// Reusable holder describing why a `tryMap*` call failed, allowing callers to handle unmappable instructions without
+/// the cost of constructing exceptions.
+/// Only failures update the result, it is not reset by successful calls.
+/// Instances are mutable and not thread safe, a single instance should be re-used per mapping thread.
+public final class MappingResult {
+
+  private MappingStatus status = MappingStatus.OK;
+  private Instruction instruction;
+  private int instructionIndex = -1;
+  private PublicKey expectedProgram;
+  private int expectedAccounts;
+  private RuntimeException cause;
+
+  public MappingStatus status() {
+    return status;
+  }
+
+  public boolean ok() {
+    return status == MappingStatus.OK;
+  }
+
+  /// The instruction which failed to map.
+  public Instruction instruction() {
+    return instruction;
+  }
+
+  /// The exception thrown if the status is [MappingStatus#MAPPING_FAILED], otherwise null.
+  public RuntimeException cause() {
+    return cause;
+  }
+
+  /// The index of the instruction which failed to map if mapping a list of instructions or transaction, otherwise -1.
+  public int instructionIndex() {
+    return instructionIndex;
+  }
+
+  public void reset() {
+    this.status = MappingStatus.OK;
+    this.instruction = null;
+    this.instructionIndex = -1;
+    this.expectedProgram = null;
+    this.expectedAccounts = 0;
+    this.cause = null;
+  }
+
+  <T> T unsupportedInstruction(final Instruction instruction) {
+    this.status = MappingStatus.UNSUPPORTED_INSTRUCTION;
+    this.instruction = instruction;
+    this.instructionIndex = -1;
+    return null;
+  }
+
+  <T> T programMismatch(final PublicKey expectedProgram, final Instruction instruction) {
+    this.status = MappingStatus.PROGRAM_MISMATCH;
+    this.instruction = instruction;
+    this.instructionIndex = -1;
+    this.expectedProgram = expectedProgram;
+    return null;
+  }
+
+  <T> T missingAccounts(final int expectedAccounts, final Instruction instruction) {
+    this.status = MappingStatus.MISSING_ACCOUNTS;
+    this.instruction = instruction;
+    this.instructionIndex = -1;
+    this.expectedAccounts = expectedAccounts;
+    return null;
+  }
+
+  /// @param instruction null if the failing instruction is unknown, e.g. when mapping a transaction.
+  <T> T mappingFailed(final RuntimeException cause, final Instruction instruction) {
+    this.status = MappingStatus.MAPPING_FAILED;
+    this.instruction = instruction;
+    this.instructionIndex = -1;
+    this.cause = cause;
+    return null;
+  }
+
+  <T> T atIndex(final int instructionIndex) {
+    this.instructionIndex = instructionIndex;
+    return null;
+  }
+
+  /// Formats a description of the failure, or returns null if the status is [MappingStatus#OK].
+  public String message() {
+    return switch (status) {
+      case OK -> null;
+      case UNSUPPORTED_INSTRUCTION -> "Unsupported instruction: " + Base64.getEncoder().encodeToString(instruction.data());
+      case PROGRAM_MISMATCH -> String.format("""
+              Expected CPI program to be %s, but was %s.""",
+          expectedProgram, instruction.programId().publicKey()
+      );
+      case MISSING_ACCOUNTS -> "Expected at least " + expectedAccounts + " accounts, found " + instruction.accounts().size();
+      case MAPPING_FAILED -> cause.getMessage();
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "MappingResult{status=" + status + ", instructionIndex=" + instructionIndex + '}';
+  }
+}
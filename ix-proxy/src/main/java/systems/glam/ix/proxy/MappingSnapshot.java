@@ -0,0 +1,388 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.programs.Discriminator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/// Versioned binary snapshot of compiled [ProgramMapConfig]'s, loaded with a read-only [FileChannel#map].
+///
+/// Loading a snapshot skips JSON parsing and Base58 decoding, keys are copied straight out of the mapped file. The JSON
+/// configs remain the source of truth, snapshots are derived from them with [#write].
+///
+/// [ProgramProxy]'s are still created on load, because [DynamicAccount]'s are produced by the caller's factory.
+///
+/// Little-endian layout:
+/// ```
+/// header:   magic int32, version int32, source fingerprint int64, numKeys int32, numStrings int32, numConfigs int32
+/// keys:     numKeys * 32 bytes
+/// strings:  numStrings * (length int32, UTF-8 bytes)
+/// config:   invokedProxyProgram key int32 (-1 if none), discriminatorLength int32,
+///           numPrograms int32, program key int32[], numIxConfigs int32, ixConfig[]
+/// ixConfig: flags byte, cpiIxName string int32, cpiDiscriminator bytes, proxyIxName string int32,
+///           proxyDiscriminator bytes (length -1 if none),
+///           numDynamicAccounts int32, (name string int32, index int32, flags byte)[],
+///           numStaticAccounts int32, (key int32, index int32, flags byte)[],
+///           indexMap length int32, int32[]
+/// bytes:    length int32, bytes
+/// ```
+/// String and key references are indexes into their tables, -1 for null. The source fingerprint identifies the JSON
+/// the snapshot was compiled from, see [CompiledConfigCache], and is zero otherwise.
+public final class MappingSnapshot {
+
+  static final int MAGIC = 0x4D505849; // "IXPM"
+  static final int VERSION = 2;
+
+  private static final int HEADER_LENGTH = 5 * Integer.BYTES + Long.BYTES;
+
+  private static final byte PAYER_TYPE = 1;
+  private static final byte WRITABLE = 1;
+  private static final byte SIGNER = 1 << 1;
+
+  private MappingSnapshot() {
+  }
+
+  private static byte accountFlags(final boolean writable, final boolean signer) {
+    return (byte) ((writable ? WRITABLE : 0) | (signer ? SIGNER : 0));
+  }
+
+  /// Writes to a temporary file which is then atomically moved to `snapshotFile`, readers never observe a partially
+  /// written snapshot.
+  public static void write(final Path snapshotFile, final Collection<ProgramMapConfig> programMapConfigs) {
+    write(snapshotFile, 0, programMapConfigs);
+  }
+
+  static void write(final Path snapshotFile,
+                    final long sourceFingerprint,
+                    final Collection<ProgramMapConfig> programMapConfigs) {
+    final var writer = new Writer(sourceFingerprint);
+    writer.writeConfigs(programMapConfigs);
+    try {
+      final var tempFile = Files.createTempFile(snapshotFile.toAbsolutePath().getParent(), snapshotFile.getFileName().toString(), ".tmp");
+      try {
+        try (final var channel = FileChannel.open(tempFile, WRITE, TRUNCATE_EXISTING)) {
+          for (final var buffer : writer.toBuffers()) {
+            while (buffer.hasRemaining()) {
+              channel.write(buffer);
+            }
+          }
+          channel.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static List<ProgramMapConfig> read(final Path snapshotFile) {
+    return read(snapshotFile, new HashMap<>(256), new HashMap<>(256));
+  }
+
+  static List<ProgramMapConfig> read(final Path snapshotFile,
+                                     final Map<AccountMeta, AccountMeta> accountMetaCache,
+                                     final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    return read(snapshotFile, 0, accountMetaCache, indexedAccountMetaCache);
+  }
+
+  /// @return null if the snapshot was not compiled from a source with the given fingerprint, unless it is zero.
+  static List<ProgramMapConfig> read(final Path snapshotFile,
+                                     final long sourceFingerprint,
+                                     final Map<AccountMeta, AccountMeta> accountMetaCache,
+                                     final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+    try (final var channel = FileChannel.open(snapshotFile, READ)) {
+      final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+      final var reader = new Reader(buffer, accountMetaCache, indexedAccountMetaCache);
+      final long snapshotFingerprint = reader.readHeader();
+      return sourceFingerprint == 0 || sourceFingerprint == snapshotFingerprint ? reader.readConfigs() : null;
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static <A> TransactionMapper<A> loadMapper(final Path snapshotFile,
+                                                    final AccountMeta invokedProxyProgram,
+                                                    final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory) {
+    return TransactionMapper.createMapper(invokedProxyProgram, dynamicAccountFactory, read(snapshotFile));
+  }
+
+  private static final class Writer {
+
+    private final long sourceFingerprint;
+    private final Map<PublicKey, Integer> keyIndexes = new LinkedHashMap<>(256);
+    private final Map<String, Integer> stringIndexes = new LinkedHashMap<>(256);
+    private ByteBuffer body = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private int numConfigs;
+
+    private Writer(final long sourceFingerprint) {
+      this.sourceFingerprint = sourceFingerprint;
+    }
+
+    private ByteBuffer ensureCapacity(final int length) {
+      if (body.remaining() < length) {
+        final var grown = ByteBuffer.allocate(Math.max(body.capacity() << 1, body.position() + length))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        body.flip();
+        grown.put(body);
+        body = grown;
+      }
+      return body;
+    }
+
+    private void putInt(final int value) {
+      ensureCapacity(Integer.BYTES).putInt(value);
+    }
+
+    private void putByte(final byte value) {
+      ensureCapacity(1).put(value);
+    }
+
+    private void putBytes(final byte[] bytes) {
+      ensureCapacity(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private void putKey(final PublicKey key) {
+      putInt(key == null ? -1 : keyIndexes.computeIfAbsent(key, _ -> keyIndexes.size()));
+    }
+
+    private void putString(final String string) {
+      putInt(string == null ? -1 : stringIndexes.computeIfAbsent(string, _ -> stringIndexes.size()));
+    }
+
+    private void putDiscriminator(final Discriminator discriminator) {
+      if (discriminator == null) {
+        putInt(-1);
+      } else {
+        putBytes(discriminator.data());
+      }
+    }
+
+    void writeConfigs(final Collection<ProgramMapConfig> programMapConfigs) {
+      for (final var programMapConfig : programMapConfigs) {
+        final var invokedProxyProgram = programMapConfig.invokedProxyProgram();
+        putKey(invokedProxyProgram == null ? null : invokedProxyProgram.publicKey());
+        putInt(programMapConfig.discriminatorLength());
+        final var programs = programMapConfig.programs();
+        putInt(programs.size());
+        for (final var program : programs) {
+          putKey(program.publicKey());
+        }
+        final var ixMapConfigs = programMapConfig.ixMapConfigs();
+        putInt(ixMapConfigs.size());
+        for (final var ixMapConfig : ixMapConfigs) {
+          writeIxConfig(ixMapConfig);
+        }
+        ++numConfigs;
+      }
+    }
+
+    private void writeIxConfig(final IxMapConfig ixMapConfig) {
+      putByte(ixMapConfig.payerType() ? PAYER_TYPE : 0);
+      putString(ixMapConfig.cpiIxName());
+      putDiscriminator(ixMapConfig.cpiDiscriminator());
+      putString(ixMapConfig.proxyIxName());
+      putDiscriminator(ixMapConfig.proxyDiscriminator());
+
+      final var dynamicAccounts = ixMapConfig.dynamicAccounts();
+      putInt(dynamicAccounts.size());
+      for (final var dynamicAccount : dynamicAccounts) {
+        putString(dynamicAccount.name());
+        putInt(dynamicAccount.index());
+        putByte(accountFlags(dynamicAccount.writable(), dynamicAccount.signer()));
+      }
+
+      final var staticAccounts = ixMapConfig.staticAccounts();
+      putInt(staticAccounts.size());
+      for (final var staticAccount : staticAccounts) {
+        final var accountMeta = staticAccount.accountMeta();
+        putKey(accountMeta.publicKey());
+        putInt(staticAccount.index());
+        putByte(accountFlags(accountMeta.write(), accountMeta.signer()));
+      }
+
+      final int[] indexMap = ixMapConfig.indexMap();
+      putInt(indexMap.length);
+      for (final int index : indexMap) {
+        putInt(index);
+      }
+    }
+
+    List<ByteBuffer> toBuffers() {
+      final var stringBytes = new ArrayList<byte[]>(stringIndexes.size());
+      int tablesLength = keyIndexes.size() * PublicKey.PUBLIC_KEY_LENGTH;
+      for (final var string : stringIndexes.keySet()) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        stringBytes.add(bytes);
+        tablesLength += Integer.BYTES + bytes.length;
+      }
+      final var tables = ByteBuffer.allocate(HEADER_LENGTH + tablesLength).order(ByteOrder.LITTLE_ENDIAN);
+      tables.putInt(MAGIC);
+      tables.putInt(VERSION);
+      tables.putLong(sourceFingerprint);
+      tables.putInt(keyIndexes.size());
+      tables.putInt(stringIndexes.size());
+      tables.putInt(numConfigs);
+      for (final var key : keyIndexes.keySet()) {
+        tables.put(key.toByteArray(), 0, PublicKey.PUBLIC_KEY_LENGTH);
+      }
+      for (final byte[] bytes : stringBytes) {
+        tables.putInt(bytes.length).put(bytes);
+      }
+      return List.of(tables.flip(), body.flip());
+    }
+  }
+
+  private static final class Reader {
+
+    private final ByteBuffer buffer;
+    private final Map<AccountMeta, AccountMeta> accountMetaCache;
+    private final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache;
+    private PublicKey[] keys;
+    private String[] strings;
+
+    private Reader(final ByteBuffer buffer,
+                   final Map<AccountMeta, AccountMeta> accountMetaCache,
+                   final Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache) {
+      this.buffer = buffer;
+      this.accountMetaCache = accountMetaCache;
+      this.indexedAccountMetaCache = indexedAccountMetaCache;
+    }
+
+    private PublicKey key() {
+      final int index = buffer.getInt();
+      return index < 0 ? null : keys[index];
+    }
+
+    private String string() {
+      final int index = buffer.getInt();
+      return index < 0 ? null : strings[index];
+    }
+
+    private byte[] bytes() {
+      final int length = buffer.getInt();
+      if (length < 0) {
+        return null;
+      }
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    private Discriminator discriminator() {
+      final byte[] discriminator = bytes();
+      return discriminator == null ? null : Discriminator.createDiscriminator(discriminator);
+    }
+
+    /// @return the source fingerprint.
+    long readHeader() {
+      final int magic = buffer.getInt();
+      if (magic != MAGIC) {
+        throw new IllegalStateException(String.format("Invalid mapping snapshot magic 0x%08X.", magic));
+      }
+      final int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IllegalStateException(String.format(
+            "Unsupported mapping snapshot version %d, expected %d.", version, VERSION
+        ));
+      }
+      return buffer.getLong();
+    }
+
+    List<ProgramMapConfig> readConfigs() {
+      this.keys = new PublicKey[buffer.getInt()];
+      this.strings = new String[buffer.getInt()];
+      final int numConfigs = buffer.getInt();
+
+      for (int i = 0; i < keys.length; ++i) {
+        // Public keys retain the given array.
+        final byte[] key = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+        buffer.get(key);
+        keys[i] = PublicKey.createPubKey(key);
+      }
+      for (int i = 0; i < strings.length; ++i) {
+        strings[i] = new String(bytes(), StandardCharsets.UTF_8);
+      }
+
+      final var configs = new ArrayList<ProgramMapConfig>(numConfigs);
+      for (int i = 0; i < numConfigs; ++i) {
+        configs.add(readConfig());
+      }
+      return configs;
+    }
+
+    private ProgramMapConfig readConfig() {
+      final var proxyProgram = key();
+      final var invokedProxyProgram = proxyProgram == null ? null : AccountMeta.createInvoked(proxyProgram);
+      final int discriminatorLength = buffer.getInt();
+      final var programs = new AccountMeta[buffer.getInt()];
+      for (int i = 0; i < programs.length; ++i) {
+        programs[i] = AccountMeta.createRead(key());
+      }
+      final int numIxConfigs = buffer.getInt();
+      final var ixMapConfigs = new ArrayList<IxMapConfig>(numIxConfigs);
+      for (int i = 0; i < numIxConfigs; ++i) {
+        ixMapConfigs.add(readIxConfig());
+      }
+      return new ProgramMapConfig(invokedProxyProgram, List.of(programs), ixMapConfigs, discriminatorLength);
+    }
+
+    private IxMapConfig readIxConfig() {
+      final boolean payerType = buffer.get() == PAYER_TYPE;
+      final var cpiIxName = string();
+      final var cpiDiscriminator = discriminator();
+      final var proxyIxName = string();
+      final var proxyDiscriminator = discriminator();
+
+      final var dynamicAccounts = new DynamicAccountConfig[buffer.getInt()];
+      for (int i = 0; i < dynamicAccounts.length; ++i) {
+        final var name = string();
+        final int index = buffer.getInt();
+        final byte flags = buffer.get();
+        dynamicAccounts[i] = new DynamicAccountConfig(name, index, (flags & WRITABLE) != 0, (flags & SIGNER) != 0);
+      }
+
+      final var staticAccounts = new IndexedAccountMeta[buffer.getInt()];
+      for (int i = 0; i < staticAccounts.length; ++i) {
+        final var account = key();
+        final int index = buffer.getInt();
+        final byte flags = buffer.get();
+        final var accountMeta = AccountMeta.createMeta(account, (flags & WRITABLE) != 0, (flags & SIGNER) != 0);
+        final var cachedMeta = accountMetaCache.putIfAbsent(accountMeta, accountMeta);
+        final var indexedMeta = new IndexedAccountMetaRecord(cachedMeta == null ? accountMeta : cachedMeta, index);
+        final var cachedIndexedMeta = indexedAccountMetaCache.putIfAbsent(indexedMeta, indexedMeta);
+        staticAccounts[i] = cachedIndexedMeta == null ? indexedMeta : cachedIndexedMeta;
+      }
+
+      final int[] indexMap = new int[buffer.getInt()];
+      for (int i = 0; i < indexMap.length; ++i) {
+        indexMap[i] = buffer.getInt();
+      }
+
+      return IxMapConfig.createConfig(
+          payerType,
+          cpiIxName,
+          cpiDiscriminator,
+          proxyIxName,
+          proxyDiscriminator,
+          List.of(dynamicAccounts),
+          List.of(staticAccounts),
+          indexMap
+      );
+    }
+  }
+}
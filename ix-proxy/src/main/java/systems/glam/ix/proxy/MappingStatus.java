@@ -0,0 +1,14 @@
+package systems.glam.ix.proxy;
+
+public enum MappingStatus {
+
+  OK,
+  /// No instruction proxy is configured for the instruction discriminator.
+  UNSUPPORTED_INSTRUCTION,
+  /// The instruction program does not match the program proxy's CPI program.
+  PROGRAM_MISMATCH,
+  /// The instruction has fewer accounts than the instruction proxy requires.
+  MISSING_ACCOUNTS,
+  /// A mapper without a native `tryMap*` implementation threw, see [MappingResult#cause].
+  MAPPING_FAILED
+}
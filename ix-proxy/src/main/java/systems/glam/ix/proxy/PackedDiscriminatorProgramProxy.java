@@ -0,0 +1,44 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.programs.Discriminator;
+import software.sava.core.tx.Instruction;
+
+import java.util.Map;
+
+/// Program proxy for fixed length discriminators of at most 8 bytes, resolved through a [PackedDiscriminatorTable]
+/// directly from the instruction data.
+final class PackedDiscriminatorProgramProxy<A> extends BaseProgramProxy<A> implements ProgramProxy<A> {
+
+  static final int MAX_DISCRIMINATOR_LENGTH = PackedDiscriminatorTable.MAX_PACKED_LENGTH;
+
+  private final int discriminatorLength;
+  private final PackedDiscriminatorTable<A> ixProxyTable;
+
+  PackedDiscriminatorProgramProxy(final AccountMeta readCpiProgram,
+                                  final int discriminatorLength,
+                                  final Map<Discriminator, IxProxy<A>> ixProxyMap) {
+    super(readCpiProgram);
+    if (discriminatorLength > MAX_DISCRIMINATOR_LENGTH) {
+      throw new IllegalArgumentException(String.format(
+          "Discriminator length must be at most %d, but was %d.",
+          MAX_DISCRIMINATOR_LENGTH, discriminatorLength
+      ));
+    }
+    this.discriminatorLength = discriminatorLength;
+    this.ixProxyTable = new PackedDiscriminatorTable<>(discriminatorLength, ixProxyMap.values());
+  }
+
+  @Override
+  public IxProxy<A> lookupProxy(final Discriminator discriminator) {
+    if (discriminator.length() != discriminatorLength) {
+      return null;
+    }
+    return ixProxyTable.lookupProxy(discriminator.data(), 0, discriminatorLength);
+  }
+
+  @Override
+  public IxProxy<A> lookupProxy(final Instruction instruction) {
+    return ixProxyTable.lookupProxy(instruction.data(), instruction.offset(), instruction.len());
+  }
+}
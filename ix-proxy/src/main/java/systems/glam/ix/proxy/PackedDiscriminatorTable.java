@@ -0,0 +1,89 @@
+package systems.glam.ix.proxy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Collection;
+
+/// Open-addressing table of [IxProxy]'s which share the same CPI discriminator length.
+/// Keys are the first (up to) 8 discriminator bytes packed into a little-endian `long`, allowing lookups to read
+/// directly from instruction data without allocating. Discriminators longer than 8 bytes are verified in full on a key
+/// match.
+final class PackedDiscriminatorTable<A> {
+
+  static final int MAX_PACKED_LENGTH = Long.BYTES;
+
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private final int discriminatorLength;
+  private final int keyLength;
+  private final int mask;
+  private final long[] keys;
+  private final IxProxy<A>[] proxies;
+
+  @SuppressWarnings("unchecked")
+  PackedDiscriminatorTable(final int discriminatorLength, final Collection<IxProxy<A>> ixProxies) {
+    if (discriminatorLength < 1) {
+      throw new IllegalArgumentException("Discriminator length must be positive, but was " + discriminatorLength);
+    }
+    this.discriminatorLength = discriminatorLength;
+    this.keyLength = Math.min(discriminatorLength, MAX_PACKED_LENGTH);
+    final int capacity = Integer.highestOneBit(Math.max(2, ixProxies.size() << 1) - 1) << 1;
+    this.mask = capacity - 1;
+    this.keys = new long[capacity];
+    this.proxies = new IxProxy[capacity];
+    for (final var ixProxy : ixProxies) {
+      final var discriminator = ixProxy.cpiDiscriminator();
+      if (discriminator.length() != discriminatorLength) {
+        throw new IllegalStateException(String.format(
+            "Expected discriminator length of %d, but was %d.",
+            discriminatorLength, discriminator.length()
+        ));
+      }
+      final long key = packKey(discriminator.data(), 0, keyLength);
+      int i = slot(key, mask);
+      while (proxies[i] != null) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      proxies[i] = ixProxy;
+    }
+  }
+
+  static long packKey(final byte[] data, final int offset, final int length) {
+    if (length == Long.BYTES) {
+      return (long) LONG_LE.get(data, offset);
+    }
+    long key = 0;
+    for (int i = 0; i < length; ++i) {
+      key |= (data[offset + i] & 0xFFL) << (i << 3);
+    }
+    return key;
+  }
+
+  private static int slot(final long key, final int mask) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  int discriminatorLength() {
+    return discriminatorLength;
+  }
+
+  /// @return the proxy whose discriminator is a prefix of the given data, or null if there is none.
+  IxProxy<A> lookupProxy(final byte[] data, final int offset, final int length) {
+    if (length < discriminatorLength) {
+      return null;
+    }
+    final long key = packKey(data, offset, keyLength);
+    for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+      final var proxy = proxies[i];
+      if (proxy == null) {
+        return null;
+      } else if (keys[i] == key
+          && (discriminatorLength <= MAX_PACKED_LENGTH || proxy.matchesCpiDiscriminator(data, offset, length))) {
+        return proxy;
+      }
+    }
+  }
+}
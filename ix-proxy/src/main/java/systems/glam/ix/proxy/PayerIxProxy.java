@@ -11,10 +11,15 @@ final class PayerIxProxy<A> extends BaseIxProxy<A> {
   final int payerIndex;
 
   PayerIxProxy(final Discriminator cpiDiscriminator, final int payerIndex) {
-    super(cpiDiscriminator);
+    super(cpiDiscriminator, PAYER);
     this.payerIndex = payerIndex;
   }
 
+  @Override
+  protected int numRequiredAccounts() {
+    return payerIndex + 1;
+  }
+
   @Override
   public Instruction mapInstructionUnchecked(final AccountMeta readCpiProgram,
                                              final AccountMeta feePayer,
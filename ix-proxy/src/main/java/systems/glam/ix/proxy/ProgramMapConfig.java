@@ -92,6 +92,42 @@ public record ProgramMapConfig(AccountMeta invokedProxyProgram,
     return parser.create();
   }
 
+  /// Reads only the program ids, skipping all instruction configs.
+  static List<PublicKey> parseProgramIds(final JsonIterator ji) {
+    final var parser = new ProgramIdParser();
+    ji.testObject(parser);
+    if (parser.programs == null) {
+      throw new IllegalStateException("Missing ProgramMapConfig field program_id.");
+    }
+    return parser.programs;
+  }
+
+  private static final class ProgramIdParser implements FieldBufferPredicate {
+
+    private List<PublicKey> programs;
+
+    private ProgramIdParser() {
+    }
+
+    @Override
+    public boolean test(final char[] buf, final int offset, final int len, final JsonIterator ji) {
+      if (fieldEquals("program_id", buf, offset, len)) {
+        if (ji.whatIsNext() == ValueType.ARRAY) {
+          final var programs = new ArrayList<PublicKey>();
+          while (ji.readArray()) {
+            programs.add(ji.applyChars(PARSE_BASE58_PUBLIC_KEY));
+          }
+          this.programs = programs;
+        } else {
+          this.programs = List.of(ji.applyChars(PARSE_BASE58_PUBLIC_KEY));
+        }
+      } else {
+        ji.skip();
+      }
+      return true;
+    }
+  }
+
   private static final class Parser implements FieldBufferPredicate {
 
     private final Map<AccountMeta, AccountMeta> accountMetaCache;
@@ -139,8 +175,9 @@ public record ProgramMapConfig(AccountMeta invokedProxyProgram,
         this.proxyProgram = ji.applyChars(PARSE_BASE58_PUBLIC_KEY);
       } else if (fieldEquals("instructions", buf, offset, len)) {
         final var ixMapConfigs = new ArrayList<IxMapConfig>();
+        final var ixMapConfigParser = new IxMapConfig.Parser(accountMetaCache, indexedAccountMetaCache);
         while (ji.readArray()) {
-          ixMapConfigs.add(IxMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji));
+          ixMapConfigs.add(ixMapConfigParser.parse(ji));
         }
         this.ixMapConfigs = ixMapConfigs;
       } else {
@@ -13,7 +13,9 @@ public interface ProgramProxy<A> extends IxMapper<A> {
   static <A> ProgramProxy<A> createProxy(final AccountMeta readCpiProgram,
                                          final int discriminatorLength,
                                          final Map<Discriminator, IxProxy<A>> ixProxyMap) {
-    return new FixedLengthDiscriminatorProgramProxy<>(readCpiProgram, discriminatorLength, ixProxyMap);
+    return discriminatorLength <= PackedDiscriminatorProgramProxy.MAX_DISCRIMINATOR_LENGTH
+        ? new PackedDiscriminatorProgramProxy<>(readCpiProgram, discriminatorLength, ixProxyMap)
+        : new FixedLengthDiscriminatorProgramProxy<>(readCpiProgram, discriminatorLength, ixProxyMap);
   }
 
   static <A> ProgramProxy<A> createProxy(final AccountMeta readCpiProgram, final List<IxProxy<A>> ixProxyList) {
@@ -14,11 +14,15 @@ import java.util.Map;
 final class ProgramProxyMap<A> implements TransactionMapper<A> {
 
   private final PublicKey invokedProxyProgram;
-  private final Map<PublicKey, ProgramProxy<A>> programProxyMap;
+  private final ProgramProxyTable<A> programProxyTable;
 
-  ProgramProxyMap(final PublicKey invokedProxyProgram, final Map<PublicKey, ProgramProxy<A>> programProxyMap) {
+  ProgramProxyMap(final PublicKey invokedProxyProgram, final ProgramProxyTable<A> programProxyTable) {
     this.invokedProxyProgram = invokedProxyProgram;
-    this.programProxyMap = programProxyMap;
+    this.programProxyTable = programProxyTable;
+  }
+
+  ProgramProxyMap(final PublicKey invokedProxyProgram, final Map<PublicKey, ProgramProxy<A>> programProxyMap) {
+    this(invokedProxyProgram, new ProgramProxyTable<>(programProxyMap));
   }
 
   @Override
@@ -28,25 +32,62 @@ final class ProgramProxyMap<A> implements TransactionMapper<A> {
 
   @Override
   public ProgramProxy<A> programProxy(final PublicKey programId) {
-    return programProxyMap.get(programId);
+    return programProxyTable.get(programId);
   }
 
   @Override
   public Instruction mapInstruction(final AccountMeta feePayer,
                                     final A runtimeAccounts,
                                     final Instruction instruction) {
-    final var programProxy = programProxyMap.get(instruction.programId().publicKey());
+    final var programProxy = programProxyTable.get(instruction.programId().publicKey());
     return programProxy == null ? instruction : programProxy.mapInstruction(feePayer, runtimeAccounts, instruction);
   }
 
+  @Override
+  public Instruction mapInstruction(final AccountMeta feePayer,
+                                    final A runtimeAccounts,
+                                    final Instruction instruction,
+                                    final MappingArena arena) {
+    final var programProxy = programProxyTable.get(instruction.programId().publicKey());
+    return programProxy == null ? instruction : programProxy.mapInstruction(feePayer, runtimeAccounts, instruction, arena);
+  }
+
   @Override
   public Instruction mapInstructionUnchecked(final AccountMeta feePayer,
                                              final A runtimeAccounts,
                                              final Instruction instruction) {
-    final var programProxy = programProxyMap.get(instruction.programId().publicKey());
+    final var programProxy = programProxyTable.get(instruction.programId().publicKey());
     return programProxy == null ? instruction : programProxy.mapInstructionUnchecked(feePayer, runtimeAccounts, instruction);
   }
 
+  @Override
+  public Instruction[] fanOutInstruction(final AccountMeta feePayer,
+                                         final List<A> runtimeAccounts,
+                                         final Instruction instruction) {
+    final var programProxy = programProxyTable.get(instruction.programId().publicKey());
+    if (programProxy == null) {
+      final var instructions = new Instruction[runtimeAccounts.size()];
+      Arrays.fill(instructions, instruction);
+      return instructions;
+    } else {
+      return programProxy.fanOutInstruction(feePayer, runtimeAccounts, instruction);
+    }
+  }
+
+  @Override
+  public BoundTransactionMapper<A> bind(final A runtimeAccounts, final AccountMeta feePayer) {
+    return new BoundProgramProxyMap<>(this, runtimeAccounts, feePayer);
+  }
+
+  @Override
+  public Instruction tryMapInstruction(final AccountMeta feePayer,
+                                       final A runtimeAccounts,
+                                       final Instruction instruction,
+                                       final MappingResult result) {
+    final var programProxy = programProxyTable.get(instruction.programId().publicKey());
+    return programProxy == null ? instruction : programProxy.tryMapInstruction(feePayer, runtimeAccounts, instruction, result);
+  }
+
   @Override
   public Instruction[] mapInstructions(final AccountMeta feePayer,
                                        final A runtimeAccounts,
@@ -59,11 +100,76 @@ final class ProgramProxyMap<A> implements TransactionMapper<A> {
     return mappedInstructions;
   }
 
+  @Override
+  public int mapInstructions(final AccountMeta feePayer,
+                             final A runtimeAccounts,
+                             final List<Instruction> instructions,
+                             final Instruction[] mappedInstructions,
+                             final MappingArena arena) {
+    final int numInstructions = instructions.size();
+    for (int i = 0; i < numInstructions; ++i) {
+      mappedInstructions[i] = mapInstruction(feePayer, runtimeAccounts, instructions.get(i), arena);
+    }
+    return numInstructions;
+  }
+
+  @Override
+  public Instruction[] tryMapInstructions(final AccountMeta feePayer,
+                                          final A runtimeAccounts,
+                                          final List<Instruction> instructions,
+                                          final MappingResult result) {
+    final var mappedInstructions = new Instruction[instructions.size()];
+    int i = 0;
+    for (final var instruction : instructions) {
+      final var mappedInstruction = tryMapInstruction(feePayer, runtimeAccounts, instruction, result);
+      if (mappedInstruction == null) {
+        return result.atIndex(i);
+      }
+      mappedInstructions[i++] = mappedInstruction;
+    }
+    return mappedInstructions;
+  }
+
+  /// @return null if every instruction was returned unchanged, otherwise all mapped instructions.
+  private Instruction[] mapChangedInstructions(final AccountMeta feePayer,
+                                               final A runtimeAccounts,
+                                               final List<Instruction> instructions) {
+    final int numInstructions = instructions.size();
+    for (int i = 0; i < numInstructions; ++i) {
+      final var instruction = instructions.get(i);
+      final var mappedInstruction = mapInstruction(feePayer, runtimeAccounts, instruction);
+      if (mappedInstruction != instruction) {
+        final var mappedInstructions = instructions.toArray(Instruction[]::new);
+        mappedInstructions[i] = mappedInstruction;
+        for (++i; i < numInstructions; ++i) {
+          mappedInstructions[i] = mapInstruction(feePayer, runtimeAccounts, mappedInstructions[i]);
+        }
+        return mappedInstructions;
+      }
+    }
+    return null;
+  }
+
   @Override
   public Transaction mapTransaction(final AccountMeta feePayer,
                                     final A runtimeAccounts,
                                     final Transaction transaction) {
-    final var mappedInstructions = Arrays.asList(mapInstructions(feePayer, runtimeAccounts, transaction.instructions()));
+    final var changedInstructions = mapChangedInstructions(feePayer, runtimeAccounts, transaction.instructions());
+    final List<Instruction> mappedInstructions;
+    if (changedInstructions == null) {
+      if (feePayer.publicKey().equals(transaction.feePayer().publicKey())) {
+        return transaction;
+      }
+      mappedInstructions = transaction.instructions();
+    } else {
+      mappedInstructions = Arrays.asList(changedInstructions);
+    }
+    return createTx(feePayer, mappedInstructions, transaction);
+  }
+
+  static Transaction createTx(final AccountMeta feePayer,
+                              final List<Instruction> mappedInstructions,
+                              final Transaction transaction) {
     final var table = transaction.lookupTable();
     if (table != null) {
       return Transaction.createTx(feePayer, mappedInstructions, table);
@@ -76,6 +182,35 @@ final class ProgramProxyMap<A> implements TransactionMapper<A> {
     }
   }
 
+  @Override
+  public Transaction tryMapTransaction(final AccountMeta feePayer,
+                                       final A runtimeAccounts,
+                                       final Transaction transaction,
+                                       final MappingResult result) {
+    final var instructions = transaction.instructions();
+    final int numInstructions = instructions.size();
+    Instruction[] mappedInstructions = null;
+    for (int i = 0; i < numInstructions; ++i) {
+      final var instruction = instructions.get(i);
+      final var mappedInstruction = tryMapInstruction(feePayer, runtimeAccounts, instruction, result);
+      if (mappedInstruction == null) {
+        return result.atIndex(i);
+      } else if (mappedInstructions != null) {
+        mappedInstructions[i] = mappedInstruction;
+      } else if (mappedInstruction != instruction) {
+        mappedInstructions = instructions.toArray(Instruction[]::new);
+        mappedInstructions[i] = mappedInstruction;
+      }
+    }
+    if (mappedInstructions == null) {
+      return feePayer.publicKey().equals(transaction.feePayer().publicKey())
+          ? transaction
+          : createTx(feePayer, instructions, transaction);
+    } else {
+      return createTx(feePayer, Arrays.asList(mappedInstructions), transaction);
+    }
+  }
+
   @Override
   public Transaction mapTransaction(final A runtimeAccounts, final Transaction transaction) {
     return mapTransaction(transaction.feePayer(), runtimeAccounts, transaction);
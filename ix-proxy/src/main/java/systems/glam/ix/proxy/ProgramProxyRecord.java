@@ -4,20 +4,44 @@ import software.sava.core.accounts.meta.AccountMeta;
 import software.sava.core.programs.Discriminator;
 import software.sava.core.tx.Instruction;
 
-import java.util.List;
+import java.util.*;
 
+/// Program proxy for mixed length discriminators.
+/// Proxies are bucketed by discriminator length into [PackedDiscriminatorTable]'s which are searched from the longest
+/// to the shortest length. Proxies which are shadowed by an earlier proxy with a prefix discriminator are dropped at
+/// construction, preserving the first match semantics of the given list order.
 final class ProgramProxyRecord<A> extends BaseProgramProxy<A> implements ProgramProxy<A> {
 
-  private final List<IxProxy<A>> ixProxyList;
+  private final PackedDiscriminatorTable<A>[] ixProxyTables;
 
+  @SuppressWarnings("unchecked")
   ProgramProxyRecord(final AccountMeta readCpiProgram, final List<IxProxy<A>> ixProxyList) {
     super(readCpiProgram);
-    this.ixProxyList = ixProxyList;
+    final var buckets = new TreeMap<Integer, Map<Discriminator, IxProxy<A>>>(Comparator.reverseOrder());
+    NEXT_PROXY:
+    for (final var ixProxy : ixProxyList) {
+      final var discriminator = ixProxy.cpiDiscriminator();
+      final int length = discriminator.length();
+      for (final var bucket : buckets.tailMap(length, true).entrySet()) {
+        final int prefixLength = bucket.getKey();
+        final var prefix = prefixLength == length
+            ? discriminator
+            : Discriminator.createDiscriminator(Arrays.copyOf(discriminator.data(), prefixLength));
+        if (bucket.getValue().containsKey(prefix)) {
+          continue NEXT_PROXY;
+        }
+      }
+      buckets.computeIfAbsent(length, _ -> new HashMap<>()).put(discriminator, ixProxy);
+    }
+    this.ixProxyTables = buckets.entrySet().stream()
+        .map(bucket -> new PackedDiscriminatorTable<>(bucket.getKey(), bucket.getValue().values()))
+        .toArray(PackedDiscriminatorTable[]::new);
   }
 
   private IxProxy<A> lookupProxy(final byte[] data, final int offset, final int length) {
-    for (final var proxy : ixProxyList) {
-      if (proxy.matchesCpiDiscriminator(data, offset, length)) {
+    for (final var ixProxyTable : ixProxyTables) {
+      final var proxy = ixProxyTable.lookupProxy(data, offset, length);
+      if (proxy != null) {
         return proxy;
       }
     }
@@ -0,0 +1,97 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.PublicKey;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/// Immutable open-addressing table of [ProgramProxy]'s keyed on the first 8 bytes of the CPI program key, with a full
+/// key verification on a match.
+/// The table is kept sparse so that lookups for programs which are never re-mapped, which dominate typical
+/// transactions, almost always terminate on the first, empty, slot.
+///
+/// A lazy table holds a factory per program instead, each proxy is created on its first lookup and published with
+/// release semantics. Concurrent first lookups may each invoke the factory, which must therefore be idempotent.
+final class ProgramProxyTable<A> {
+
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle PROXIES = MethodHandles.arrayElementVarHandle(ProgramProxy[].class);
+
+  private final int mask;
+  private final long[] keys;
+  private final PublicKey[] programs;
+  private final ProgramProxy<A>[] proxies;
+  private final Supplier<ProgramProxy<A>>[] factories;
+
+  @SuppressWarnings("unchecked")
+  private ProgramProxyTable(final int numPrograms, final boolean lazy) {
+    final int capacity = Integer.highestOneBit(Math.max(2, numPrograms << 2) - 1) << 1;
+    this.mask = capacity - 1;
+    this.keys = new long[capacity];
+    this.programs = new PublicKey[capacity];
+    this.proxies = new ProgramProxy[capacity];
+    this.factories = lazy ? new Supplier[capacity] : null;
+  }
+
+  ProgramProxyTable(final Map<PublicKey, ProgramProxy<A>> programProxyMap) {
+    this(programProxyMap.size(), false);
+    for (final var entry : programProxyMap.entrySet()) {
+      proxies[put(entry.getKey())] = entry.getValue();
+    }
+  }
+
+  static <A> ProgramProxyTable<A> createLazyTable(final Map<PublicKey, Supplier<ProgramProxy<A>>> programProxyFactories) {
+    final var table = new ProgramProxyTable<A>(programProxyFactories.size(), true);
+    for (final var entry : programProxyFactories.entrySet()) {
+      table.factories[table.put(entry.getKey())] = entry.getValue();
+    }
+    return table;
+  }
+
+  private int put(final PublicKey program) {
+    final long key = key(program);
+    int i = slot(key, mask);
+    while (programs[i] != null) {
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    programs[i] = program;
+    return i;
+  }
+
+  private static long key(final PublicKey program) {
+    return (long) LONG_LE.get(program.toByteArray(), 0);
+  }
+
+  private static int slot(final long key, final int mask) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ProgramProxy<A> materialize(final int i) {
+    final var programProxy = factories[i].get();
+    final var witness = (ProgramProxy<A>) PROXIES.compareAndExchangeRelease(proxies, i, null, programProxy);
+    return witness == null ? programProxy : witness;
+  }
+
+  @SuppressWarnings("unchecked")
+  ProgramProxy<A> get(final PublicKey program) {
+    final long key = key(program);
+    for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+      final var entry = programs[i];
+      if (entry == null) {
+        return null;
+      } else if (keys[i] == key && entry.equals(program)) {
+        if (factories == null) {
+          return proxies[i];
+        }
+        final var programProxy = (ProgramProxy<A>) PROXIES.getAcquire(proxies, i);
+        return programProxy == null ? materialize(i) : programProxy;
+      }
+    }
+  }
+}
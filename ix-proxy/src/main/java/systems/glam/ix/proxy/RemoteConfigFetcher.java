@@ -0,0 +1,280 @@
+package systems.glam.ix.proxy;
+
+import software.sava.core.accounts.meta.AccountMeta;
+import systems.comodal.jsoniter.JsonIterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/// Fetches remote mapping configs with non-blocking [HttpClient#sendAsync] requests, at most `maxConcurrency` in
+/// flight at a time. With an HTTP/2 client, which is the [HttpClient] default, requests to the same host are
+/// multiplexed over a single connection.
+///
+/// Requests are conditional on the `ETag` and `Last-Modified` validators of the previous response. A `304 Not
+/// Modified` response re-uses the config parsed by a previous fetch, or otherwise parses the cached file. When
+/// caching files, validators are stored next to each cached config file, in `<file_name>.etag`, so that conditional
+/// requests survive restarts.
+///
+/// Given a [CompiledConfigCache], configs whose content is unchanged are loaded from their compiled artifact instead of
+/// being parsed.
+///
+/// A fetcher retains the configs and validators of its last fetch, create one per [ConfigLoader] and re-use it for
+/// subsequent fetches. Its account meta intern pools are rebuilt from the configs of each completed fetch, so that
+/// replaced configs do not accumulate in the pools.
+public final class RemoteConfigFetcher {
+
+  private static final System.Logger logger = System.getLogger(RemoteConfigFetcher.class.getName());
+
+  static final String VALIDATORS_FILE_SUFFIX = ".etag";
+
+  private final Collection<ConfigLoader.ConfigResource> configResources;
+  private final HttpClient httpClient;
+  private final Executor executor;
+  private final int maxConcurrency;
+  private final Path cacheDirectory;
+  private final long maxDelayMillis;
+  private final int maxRetries;
+  private final CompiledConfigCache compiledConfigCache;
+  private volatile Map<AccountMeta, AccountMeta> accountMetaCache;
+  private volatile Map<IndexedAccountMeta, IndexedAccountMeta> indexedAccountMetaCache;
+  private final Map<ConfigLoader.ConfigResource, FetchedConfig> fetchedConfigs;
+
+  /// @param config null if only the validators of a cached file are known.
+  private record FetchedConfig(String eTag, String lastModified, ProgramMapConfig config) {
+
+    FetchedConfig withConfig(final ProgramMapConfig config) {
+      return new FetchedConfig(eTag, lastModified, config);
+    }
+  }
+
+  RemoteConfigFetcher(final Collection<ConfigLoader.ConfigResource> configResources,
+                      final HttpClient httpClient,
+                      final Executor executor,
+                      final int maxConcurrency,
+                      final Path cacheDirectory,
+                      final long maxDelayMillis,
+                      final int maxRetries,
+                      final CompiledConfigCache compiledConfigCache) {
+    if (maxConcurrency < 1) {
+      throw new IllegalStateException(String.format("maxConcurrency must be positive, not %d.", maxConcurrency));
+    }
+    this.configResources = List.copyOf(configResources);
+    this.httpClient = httpClient;
+    this.executor = executor;
+    this.maxConcurrency = maxConcurrency;
+    this.cacheDirectory = cacheDirectory;
+    this.maxDelayMillis = maxDelayMillis;
+    this.maxRetries = maxRetries;
+    this.compiledConfigCache = compiledConfigCache;
+    this.accountMetaCache = ConfigLoader.createAccountMetaPool();
+    this.indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    this.fetchedConfigs = new ConcurrentHashMap<>(this.configResources.size());
+  }
+
+  /// @return all configs, in the iteration order of the config resources.
+  public CompletableFuture<List<ProgramMapConfig>> fetchConfigs() {
+    final var resources = configResources.toArray(ConfigLoader.ConfigResource[]::new);
+    final var results = new ProgramMapConfig[resources.length];
+    final var next = new AtomicInteger();
+    final var fetchChains = new CompletableFuture<?>[Math.min(maxConcurrency, resources.length)];
+    for (int i = 0; i < fetchChains.length; ++i) {
+      fetchChains[i] = fetchNext(resources, results, next);
+    }
+    return CompletableFuture.allOf(fetchChains).thenApply(_ -> {
+      final var configs = Arrays.asList(results);
+      pruneInternPools(configs);
+      return configs;
+    });
+  }
+
+  private void pruneInternPools(final List<ProgramMapConfig> configs) {
+    final var accountMetaCache = ConfigLoader.createAccountMetaPool();
+    final var indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    ConfigLoader.internStaticAccounts(configs, accountMetaCache, indexedAccountMetaCache);
+    this.accountMetaCache = accountMetaCache;
+    this.indexedAccountMetaCache = indexedAccountMetaCache;
+  }
+
+  /// Each chain fetches one resource at a time until none remain, which bounds the number of in flight requests.
+  private CompletableFuture<Void> fetchNext(final ConfigLoader.ConfigResource[] resources,
+                                            final ProgramMapConfig[] results,
+                                            final AtomicInteger next) {
+    final int i = next.getAndIncrement();
+    if (i >= resources.length) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return fetch(resources[i]).thenCompose(config -> {
+      results[i] = config;
+      return fetchNext(resources, results, next);
+    });
+  }
+
+  private CompletableFuture<ProgramMapConfig> fetch(final ConfigLoader.ConfigResource configResource) {
+    return send(configResource, 0).thenApplyAsync(response -> handleResponse(configResource, response), executor);
+  }
+
+  private Path cacheFile(final ConfigLoader.ConfigResource configResource) {
+    return cacheDirectory.resolve(configResource.fileName());
+  }
+
+  private Path validatorsFile(final ConfigLoader.ConfigResource configResource) {
+    return cacheDirectory.resolve(configResource.fileName() + VALIDATORS_FILE_SUFFIX);
+  }
+
+  private FetchedConfig fetchedConfig(final ConfigLoader.ConfigResource configResource) {
+    final var fetchedConfig = fetchedConfigs.get(configResource);
+    if (fetchedConfig != null || cacheDirectory == null) {
+      return fetchedConfig;
+    }
+    final var validatorsFile = validatorsFile(configResource);
+    if (!Files.exists(validatorsFile) || !Files.exists(cacheFile(configResource))) {
+      return null;
+    }
+    try {
+      final var validators = Files.readAllLines(validatorsFile, StandardCharsets.UTF_8);
+      final var eTag = validators.isEmpty() ? "" : validators.getFirst();
+      final var lastModified = validators.size() < 2 ? "" : validators.get(1);
+      final var cachedValidators = new FetchedConfig(eTag, lastModified, null);
+      fetchedConfigs.put(configResource, cachedValidators);
+      return cachedValidators;
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private HttpRequest createRequest(final ConfigLoader.ConfigResource configResource) {
+    final var request = HttpRequest.newBuilder(configResource.uri()).GET();
+    final var fetchedConfig = fetchedConfig(configResource);
+    if (fetchedConfig != null) {
+      if (!fetchedConfig.eTag.isEmpty()) {
+        request.header("If-None-Match", fetchedConfig.eTag);
+      }
+      if (!fetchedConfig.lastModified.isEmpty()) {
+        request.header("If-Modified-Since", fetchedConfig.lastModified);
+      }
+    }
+    return request.build();
+  }
+
+  private CompletableFuture<HttpResponse<byte[]>> send(final ConfigLoader.ConfigResource configResource,
+                                                       final int errorCount) {
+    return httpClient.sendAsync(createRequest(configResource), HttpResponse.BodyHandlers.ofByteArray())
+        .thenCompose(response -> checkServerError(configResource, response))
+        .exceptionallyCompose(e -> retry(configResource, errorCount, e));
+  }
+
+  /// Server errors are retried along with IO failures.
+  private static CompletableFuture<HttpResponse<byte[]>> checkServerError(final ConfigLoader.ConfigResource configResource,
+                                                                          final HttpResponse<byte[]> response) {
+    final int statusCode = response.statusCode();
+    if (statusCode >= 500) {
+      return CompletableFuture.failedFuture(new IOException(String.format(
+          "Remote config %s responded with HTTP status %d.", configResource, statusCode
+      )));
+    } else {
+      return CompletableFuture.completedFuture(response);
+    }
+  }
+
+  private CompletableFuture<HttpResponse<byte[]>> retry(final ConfigLoader.ConfigResource configResource,
+                                                        final int errorCount,
+                                                        final Throwable throwable) {
+    final var cause = throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+    final int numErrors = errorCount + 1;
+    if (!(cause instanceof IOException) || numErrors > maxRetries) {
+      return CompletableFuture.failedFuture(cause instanceof IOException ioException
+          ? new UncheckedIOException(ioException)
+          : cause);
+    }
+    final long delayMillis = Math.min(maxDelayMillis, TimeUnit.SECONDS.toMillis((numErrors << 1) - 1));
+    logger.log(System.Logger.Level.WARNING, String.format("""
+            Failed %d time(s) to fetch remote config %s.
+            Retrying in %dms.
+            """, numErrors, configResource, delayMillis
+        )
+    );
+    final var delayedExecutor = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor);
+    return CompletableFuture.supplyAsync(() -> configResource, delayedExecutor)
+        .thenCompose(_ -> send(configResource, numErrors));
+  }
+
+  private ProgramMapConfig parseConfig(final ConfigLoader.ConfigResource configResource, final byte[] configData) {
+    if (compiledConfigCache != null) {
+      return compiledConfigCache.load(configResource.fileName(), configData, accountMetaCache, indexedAccountMetaCache);
+    }
+    final var ji = JsonIterator.parse(configData);
+    return ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji);
+  }
+
+  private ProgramMapConfig handleResponse(final ConfigLoader.ConfigResource configResource,
+                                          final HttpResponse<byte[]> response) {
+    final int statusCode = response.statusCode();
+    if (statusCode == 304) {
+      final var fetchedConfig = fetchedConfigs.get(configResource);
+      if (fetchedConfig == null) {
+        throw new IllegalStateException(String.format(
+            "Remote config %s responded with HTTP status 304 to an unconditional request.", configResource
+        ));
+      } else if (fetchedConfig.config != null) {
+        return fetchedConfig.config;
+      }
+      try {
+        final var programMapConfig = parseConfig(configResource, Files.readAllBytes(cacheFile(configResource)));
+        fetchedConfigs.put(configResource, fetchedConfig.withConfig(programMapConfig));
+        return programMapConfig;
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    } else if (statusCode != 200) {
+      throw new IllegalStateException(String.format(
+          "Remote config %s responded with HTTP status %d.", configResource, statusCode
+      ));
+    }
+
+    final byte[] responseData = response.body();
+    final var programMapConfig = parseConfig(configResource, responseData);
+    final var headers = response.headers();
+    final var fetchedConfig = new FetchedConfig(
+        headers.firstValue("ETag").orElse(""),
+        headers.firstValue("Last-Modified").orElse(""),
+        programMapConfig
+    );
+    fetchedConfigs.put(configResource, fetchedConfig);
+
+    if (cacheDirectory != null) {
+      try {
+        Files.write(cacheFile(configResource), responseData, CREATE, WRITE, TRUNCATE_EXISTING);
+        final var validatorsFile = validatorsFile(configResource);
+        if (fetchedConfig.eTag.isEmpty() && fetchedConfig.lastModified.isEmpty()) {
+          Files.deleteIfExists(validatorsFile);
+        } else {
+          Files.writeString(
+              validatorsFile,
+              fetchedConfig.eTag + '\n' + fetchedConfig.lastModified + '\n',
+              StandardCharsets.UTF_8,
+              CREATE, WRITE, TRUNCATE_EXISTING
+          );
+        }
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return programMapConfig;
+  }
+}
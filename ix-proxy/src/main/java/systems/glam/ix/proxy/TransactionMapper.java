@@ -7,9 +7,16 @@ import software.sava.core.accounts.meta.LookupTableAccountMeta;
 import software.sava.core.tx.Instruction;
 import software.sava.core.tx.Transaction;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface TransactionMapper<A> extends IxMapper<A> {
 
@@ -29,6 +36,20 @@ public interface TransactionMapper<A> extends IxMapper<A> {
     return createMapper(invokedProxyProgram.publicKey(), programProxies);
   }
 
+  /// Only indexes the program ids of each JSON config up front, each [ProgramProxy] is created on the first lookup of
+  /// its program, e.g. via [#programProxy] or [#mapInstruction]. Invalid configs therefore fail on first use rather
+  /// than on creation.
+  static <A> TransactionMapper<A> createLazyMapper(final AccountMeta invokedProxyProgram,
+                                                   final Function<DynamicAccountConfig, DynamicAccount<A>> dynamicAccountFactory,
+                                                   final Collection<byte[]> programMapConfigsJson) {
+    final var programProxyTable = LazyProgramConfig.createLazyTable(
+        invokedProxyProgram,
+        dynamicAccountFactory,
+        programMapConfigsJson
+    );
+    return new ProgramProxyMap<>(invokedProxyProgram.publicKey(), programProxyTable);
+  }
+
   PublicKey invokedProxyProgram();
 
   ProgramProxy<A> programProxy(final PublicKey programId);
@@ -37,12 +58,166 @@ public interface TransactionMapper<A> extends IxMapper<A> {
                                 final A runtimeAccounts,
                                 final List<Instruction> instructions);
 
+  /// Binds the runtime accounts and fee payer of a single vault. The returned mapper resolves the dynamic accounts of
+  /// each instruction proxy once, on its first use, after which mapping only places the source accounts and copies the
+  /// instruction data. Bound mappers are thread safe, see [BoundMapperCache] to re-use them across requests.
+  ///
+  /// By default, the returned mapper delegates each call to this mapper.
+  default BoundTransactionMapper<A> bind(final A runtimeAccounts, final AccountMeta feePayer) {
+    return new BoundTransactionMapperRecord<>(this, runtimeAccounts, feePayer);
+  }
+
+  /// Equivalent of [#mapInstructions] which writes into the caller owned `mappedInstructions` array, starting at index
+  /// zero, and allocates mapped instruction data from the given arena.
+  ///
+  /// By default, the arena is not used and the instructions mapped by [#mapInstructions] are copied into
+  /// `mappedInstructions`.
+  ///
+  /// @return the number of mapped instructions written.
+  default int mapInstructions(final AccountMeta feePayer,
+                              final A runtimeAccounts,
+                              final List<Instruction> instructions,
+                              final Instruction[] mappedInstructions,
+                              final MappingArena arena) {
+    final var mapped = mapInstructions(feePayer, runtimeAccounts, instructions);
+    System.arraycopy(mapped, 0, mappedInstructions, 0, mapped.length);
+    return mapped.length;
+  }
+
+  /// Equivalent of [#mapInstructions] which does not throw if an instruction cannot be mapped.
+  ///
+  /// @return the mapped instructions, or null if any instruction could not be mapped, in which case the reason and
+  /// instruction index are recorded in `result`.
+  default Instruction[] tryMapInstructions(final AccountMeta feePayer,
+                                           final A runtimeAccounts,
+                                           final List<Instruction> instructions,
+                                           final MappingResult result) {
+    final var mappedInstructions = new Instruction[instructions.size()];
+    int i = 0;
+    for (final var instruction : instructions) {
+      try {
+        mappedInstructions[i] = mapInstruction(feePayer, runtimeAccounts, instruction);
+      } catch (final IllegalStateException e) {
+        result.mappingFailed(e, instruction);
+        return result.atIndex(i);
+      }
+      ++i;
+    }
+    return mappedInstructions;
+  }
+
+  /// Returns the given transaction instance if no instruction was re-mapped and the fee payer is unchanged.
   Transaction mapTransaction(final AccountMeta feePayer,
                              final A runtimeAccounts,
                              final Transaction transaction);
 
+  /// Returns the given transaction instance if no instruction was re-mapped.
   Transaction mapTransaction(final A runtimeAccounts, final Transaction transaction);
 
+  /// Equivalent of [#mapTransaction] which does not throw if an instruction cannot be mapped.
+  ///
+  /// @return the mapped transaction, or null if any instruction could not be mapped, in which case the reason and
+  /// instruction index are recorded in `result`.
+  default Transaction tryMapTransaction(final AccountMeta feePayer,
+                                        final A runtimeAccounts,
+                                        final Transaction transaction,
+                                        final MappingResult result) {
+    try {
+      return mapTransaction(feePayer, runtimeAccounts, transaction);
+    } catch (final IllegalStateException e) {
+      return result.mappingFailed(e, null);
+    }
+  }
+
+  default Transaction tryMapTransaction(final A runtimeAccounts, final Transaction transaction, final MappingResult result) {
+    return tryMapTransaction(transaction.feePayer(), runtimeAccounts, transaction, result);
+  }
+
+  /// Maps a batch of transactions, split into chunks of up to `chunkSize` transactions which are mapped concurrently.
+  /// Chunks are submitted to `executor`, except for the last, which is mapped by the calling thread. Mappers are
+  /// immutable, so a single instance is shared by all chunks.
+  ///
+  /// The first failure, including the rejection of a chunk by `executor`, is rethrown. Chunks which have not started are
+  /// cancelled, and chunks which are running stop before their next transaction.
+  ///
+  /// Both platform thread pools, such as the common [java.util.concurrent.ForkJoinPool], and virtual thread executors
+  /// are suitable. Larger chunks amortize task overhead, smaller chunks balance load when transaction sizes vary.
+  ///
+  /// @param runtimeAccounts the runtime accounts of the transaction at the same index, e.g. per vault.
+  /// @return the mapped transactions in input order.
+  default List<Transaction> mapTransactions(final List<A> runtimeAccounts,
+                                            final List<Transaction> transactions,
+                                            final Executor executor,
+                                            final int chunkSize) {
+    final int numTransactions = transactions.size();
+    if (runtimeAccounts.size() != numTransactions) {
+      throw new IllegalArgumentException(String.format(
+          "Expected runtime accounts for each of the %d transactions, but was %d.",
+          numTransactions, runtimeAccounts.size()
+      ));
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+    }
+    final var mappedTransactions = new Transaction[numTransactions];
+    final int lastChunk = numTransactions <= chunkSize ? 0 : ((numTransactions - 1) / chunkSize) * chunkSize;
+    final var futureChunks = new CompletableFuture<?>[lastChunk / chunkSize];
+    final var failed = new AtomicBoolean();
+    try {
+      for (int from = 0, c = 0; from < lastChunk; from += chunkSize, ++c) {
+        final int start = from;
+        final int end = from + chunkSize;
+        futureChunks[c] = CompletableFuture.runAsync(() -> {
+          try {
+            for (int i = start; i < end && !failed.get(); ++i) {
+              mappedTransactions[i] = mapTransaction(runtimeAccounts.get(i), transactions.get(i));
+            }
+          } catch (final RuntimeException e) {
+            failed.set(true);
+            throw e;
+          }
+        }, executor);
+      }
+      for (int i = lastChunk; i < numTransactions && !failed.get(); ++i) {
+        mappedTransactions[i] = mapTransaction(runtimeAccounts.get(i), transactions.get(i));
+      }
+      CompletableFuture.allOf(futureChunks).join();
+    } catch (final RuntimeException e) {
+      failed.set(true);
+      for (final var futureChunk : futureChunks) {
+        if (futureChunk != null) {
+          futureChunk.cancel(false);
+        }
+      }
+      if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return List.of(mappedTransactions);
+  }
+
+  /// Maps a batch of transactions which share the same runtime accounts, see [#mapTransactions(List, List, Executor, int)].
+  default List<Transaction> mapTransactions(final A runtimeAccounts,
+                                            final List<Transaction> transactions,
+                                            final Executor executor,
+                                            final int chunkSize) {
+    return mapTransactions(
+        Collections.nCopies(transactions.size(), runtimeAccounts),
+        transactions,
+        executor,
+        chunkSize
+    );
+  }
+
+  /// Lazily maps each transaction of the stream with the runtime accounts resolved for it. Mappers are immutable, so a
+  /// parallel stream is mapped across cores, and an ordered stream, such as one sourced from a [List], retains its
+  /// encounter order.
+  default Stream<Transaction> mapTransactions(final Function<Transaction, A> runtimeAccounts,
+                                              final Stream<Transaction> transactions) {
+    return transactions.map(transaction -> mapTransaction(runtimeAccounts.apply(transaction), transaction));
+  }
+
   Transaction mapTransactionWithTable(final AccountMeta feePayer,
                                       final A runtimeAccounts,
                                       final Transaction transaction,
@@ -0,0 +1,540 @@
+package systems.glam.ix.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.programs.Discriminator;
+import systems.comodal.jsoniter.JsonIterator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static systems.glam.ix.proxy.fixtures.MappingCorpusGenerator.generateIdentityConfig;
+import static systems.glam.ix.proxy.fixtures.MappingCorpusGenerator.generateStaticConfig;
+import static systems.glam.ix.proxy.fixtures.MappingCorpusGenerator.randomKey;
+
+final class ConfigLoaderTests {
+
+  private static final int NUM_CONFIGS = 256;
+  private static final int NUM_STATIC_ACCOUNTS = 512;
+  private static final int NUM_INSTRUCTIONS = 8;
+
+  private static final String LAST_MODIFIED = "Wed, 21 Oct 2026 07:28:00 GMT";
+
+  private static final Map<String, byte[]> REMOTE_CONFIGS = new ConcurrentHashMap<>(NUM_CONFIGS);
+  private static final AtomicInteger NUM_OK_RESPONSES = new AtomicInteger();
+  private static final AtomicInteger NUM_NOT_MODIFIED_RESPONSES = new AtomicInteger();
+  private static final Set<PublicKey> PROGRAMS = HashSet.newHashSet(NUM_CONFIGS);
+
+  private static ExecutorService serverExecutor;
+  private static HttpServer server;
+
+  private static String eTag(final byte[] body) {
+    return '"' + Integer.toHexString(Arrays.hashCode(body)) + '"';
+  }
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    final var random = new Random(13);
+    final var staticAccounts = new PublicKey[NUM_STATIC_ACCOUNTS];
+    for (int i = 0; i < staticAccounts.length; ++i) {
+      staticAccounts[i] = randomKey(random);
+    }
+    for (int i = 0; i < NUM_CONFIGS; ++i) {
+      final var program = randomKey(random);
+      PROGRAMS.add(program);
+      REMOTE_CONFIGS.put("/" + i + ".json", generateStaticConfig(random, program, staticAccounts, NUM_INSTRUCTIONS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    serverExecutor = Executors.newFixedThreadPool(8);
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext("/", exchange -> {
+      try (exchange) {
+        final byte[] body = REMOTE_CONFIGS.get(exchange.getRequestURI().getPath());
+        if (body == null) {
+          exchange.sendResponseHeaders(404, -1);
+          return;
+        }
+        final var eTag = eTag(body);
+        final var responseHeaders = exchange.getResponseHeaders();
+        responseHeaders.add("ETag", eTag);
+        responseHeaders.add("Last-Modified", LAST_MODIFIED);
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          NUM_NOT_MODIFIED_RESPONSES.incrementAndGet();
+          exchange.sendResponseHeaders(304, -1);
+        } else {
+          NUM_OK_RESPONSES.incrementAndGet();
+          exchange.sendResponseHeaders(200, body.length);
+          exchange.getResponseBody().write(body);
+        }
+      }
+    });
+    server.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  private static Set<ConfigLoader.ConfigResource> remoteResources() {
+    final var baseUri = URI.create("http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort());
+    final var resources = HashSet.<ConfigLoader.ConfigResource>newHashSet(NUM_CONFIGS);
+    for (final var path : REMOTE_CONFIGS.keySet()) {
+      resources.add(new ConfigLoader.ConfigResource(baseUri.resolve(path), path.substring(1)));
+    }
+    return resources;
+  }
+
+  private static void assertInterned(final List<ProgramMapConfig> configs) {
+    assertEquals(NUM_CONFIGS, configs.size());
+    final var accountMetas = new HashMap<AccountMeta, AccountMeta>();
+    final var indexedAccountMetas = new HashMap<IndexedAccountMeta, IndexedAccountMeta>();
+    final var programs = HashSet.<PublicKey>newHashSet(NUM_CONFIGS);
+    for (final var config : configs) {
+      for (final var program : config.programs()) {
+        programs.add(program.publicKey());
+      }
+      assertEquals(NUM_INSTRUCTIONS, config.ixMapConfigs().size());
+      for (final var ixMapConfig : config.ixMapConfigs()) {
+        for (final var staticAccount : ixMapConfig.staticAccounts()) {
+          final var indexedAccountMeta = indexedAccountMetas.putIfAbsent(staticAccount, staticAccount);
+          assertTrue(indexedAccountMeta == null || indexedAccountMeta == staticAccount);
+          final var accountMeta = staticAccount.accountMeta();
+          final var internedMeta = accountMetas.putIfAbsent(accountMeta, accountMeta);
+          assertTrue(internedMeta == null || internedMeta == accountMeta);
+        }
+      }
+    }
+    assertEquals(PROGRAMS, programs);
+    assertTrue(accountMetas.size() <= NUM_STATIC_ACCOUNTS << 1);
+    assertEquals(accountMetas.size(), indexedAccountMetas.size());
+  }
+
+  @Test
+  void testConcurrentRemoteInterning() {
+    final int numThreads = 32;
+    final var configLoader = new ConfigLoader(null, remoteResources());
+    final var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    final var executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      for (int round = 0; round < 8; ++round) {
+        final var configs = configLoader.loadRemoteConfigs(
+            executor, numThreads, httpClient, false, Duration.ofMillis(100), 2
+        );
+        assertInterned(configs);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /// Every thread parses every config against the same pools, released together to maximize contention.
+  @Test
+  void testConcurrentInternPools() throws InterruptedException, ExecutionException {
+    final int numThreads = 32;
+    final var configs = List.copyOf(REMOTE_CONFIGS.values());
+    final var executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      for (int round = 0; round < 16; ++round) {
+        final var accountMetaCache = ConfigLoader.createAccountMetaPool();
+        final var indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+        final var start = new CountDownLatch(1);
+        final var futures = new ArrayList<Future<List<ProgramMapConfig>>>(numThreads);
+        for (int t = 0; t < numThreads; ++t) {
+          futures.add(executor.submit(() -> {
+            start.await();
+            final var parsed = new ArrayList<ProgramMapConfig>(NUM_CONFIGS);
+            for (int i = 0; i < NUM_CONFIGS; ++i) {
+              final var ji = JsonIterator.parse(configs.get(i));
+              parsed.add(ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, ji));
+            }
+            return parsed;
+          }));
+        }
+        start.countDown();
+        final var allConfigs = new ArrayList<ProgramMapConfig>(numThreads * NUM_CONFIGS);
+        for (final var future : futures) {
+          final var parsed = future.get();
+          assertInterned(parsed);
+          allConfigs.addAll(parsed);
+        }
+        final var indexedAccountMetas = Collections.newSetFromMap(new IdentityHashMap<IndexedAccountMeta, Boolean>());
+        for (final var config : allConfigs) {
+          for (final var ixMapConfig : config.ixMapConfigs()) {
+            indexedAccountMetas.addAll(ixMapConfig.staticAccounts());
+          }
+        }
+        assertEquals(indexedAccountMetaCache.size(), indexedAccountMetas.size());
+        assertEquals(accountMetaCache.size(), indexedAccountMetas.size());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testConditionalRemoteFetch(@TempDir final Path cacheDirectory) {
+    final var configLoader = new ConfigLoader(cacheDirectory, remoteResources());
+    final var httpClient = HttpClient.newHttpClient();
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      final var fetcher = configLoader.createRemoteConfigFetcher(
+          executor, 16, httpClient, true, Duration.ofMillis(100), 2
+      );
+      NUM_OK_RESPONSES.set(0);
+      NUM_NOT_MODIFIED_RESPONSES.set(0);
+      final var configs = fetcher.fetchConfigs().join();
+      assertInterned(configs);
+      assertEquals(NUM_CONFIGS, NUM_OK_RESPONSES.get());
+      assertEquals(0, NUM_NOT_MODIFIED_RESPONSES.get());
+      for (final var path : REMOTE_CONFIGS.keySet()) {
+        final var fileName = path.substring(1);
+        assertTrue(Files.exists(cacheDirectory.resolve(fileName)));
+        assertTrue(Files.exists(cacheDirectory.resolve(fileName + RemoteConfigFetcher.VALIDATORS_FILE_SUFFIX)));
+      }
+
+      // Unmodified configs are neither downloaded nor parsed again.
+      final var unmodifiedConfigs = fetcher.fetchConfigs().join();
+      assertEquals(NUM_CONFIGS, NUM_OK_RESPONSES.get());
+      assertEquals(NUM_CONFIGS, NUM_NOT_MODIFIED_RESPONSES.get());
+      for (int i = 0; i < NUM_CONFIGS; ++i) {
+        assertSame(configs.get(i), unmodifiedConfigs.get(i));
+      }
+
+      final var modifiedPath = "/0.json";
+      final byte[] originalBody = REMOTE_CONFIGS.get(modifiedPath);
+      REMOTE_CONFIGS.put(modifiedPath, (new String(originalBody, StandardCharsets.UTF_8) + '\n').getBytes(StandardCharsets.UTF_8));
+      try {
+        final var modifiedConfigs = fetcher.fetchConfigs().join();
+        assertEquals(NUM_CONFIGS + 1, NUM_OK_RESPONSES.get());
+        assertEquals((NUM_CONFIGS << 1) - 1, NUM_NOT_MODIFIED_RESPONSES.get());
+        assertInterned(modifiedConfigs);
+        int numReused = 0;
+        for (int i = 0; i < NUM_CONFIGS; ++i) {
+          if (configs.get(i) == modifiedConfigs.get(i)) {
+            ++numReused;
+          }
+        }
+        assertEquals(NUM_CONFIGS - 1, numReused);
+      } finally {
+        REMOTE_CONFIGS.put(modifiedPath, originalBody);
+      }
+
+      // A new fetcher, as after a restart, re-uses the validators and files cached by the previous fetcher.
+      NUM_OK_RESPONSES.set(0);
+      NUM_NOT_MODIFIED_RESPONSES.set(0);
+      final var restartedFetcher = configLoader.createRemoteConfigFetcher(
+          executor, 16, httpClient, true, Duration.ofMillis(100), 2
+      );
+      final var cachedConfigs = restartedFetcher.fetchConfigs().join();
+      assertEquals(1, NUM_OK_RESPONSES.get());
+      assertEquals(NUM_CONFIGS - 1, NUM_NOT_MODIFIED_RESPONSES.get());
+      assertInterned(cachedConfigs);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <A> TransactionMapper<A> awaitReload(final ConfigWatcher<A> watcher,
+                                                      final Predicate<TransactionMapper<A>> reloaded) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    for (; ; ) {
+      final var transactionMapper = watcher.transactionMapper();
+      if (reloaded.test(transactionMapper)) {
+        return transactionMapper;
+      }
+      assertTrue(System.nanoTime() < deadline, "Timed out waiting for mapping configs to reload.");
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void testConfigWatcher(@TempDir final Path configDirectory) throws IOException, InterruptedException {
+    final var random = new Random(16);
+    final var programA = randomKey(random);
+    final var programB = randomKey(random);
+    final var configFileA = configDirectory.resolve("a.json");
+    final var configFileB = configDirectory.resolve("b.json");
+    Files.writeString(configFileA, generateIdentityConfig(programA, 1));
+
+    final Function<DynamicAccountConfig, DynamicAccount<Object>> dynamicAccountFactory = accountConfig -> {
+      throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+    };
+    final var configLoader = new ConfigLoader(configDirectory, null);
+    final var invokedProxyProgram = AccountMeta.createInvoked(randomKey(random));
+    try (final var watcher = configLoader.watchLocalConfigs(invokedProxyProgram, dynamicAccountFactory)) {
+      final var initialMapper = watcher.transactionMapper();
+      final var proxyA = initialMapper.programProxy(programA);
+      assertNotNull(proxyA);
+      assertNull(initialMapper.programProxy(programB));
+
+      final var watchThread = new Thread(watcher, "ConfigWatcher");
+      watchThread.start();
+      try {
+        Files.writeString(configFileB, generateIdentityConfig(programB, 1));
+        var transactionMapper = awaitReload(watcher, mapper -> mapper.programProxy(programB) != null);
+        // Published snapshots are immutable and unchanged files are not rebuilt.
+        assertNull(initialMapper.programProxy(programB));
+        assertSame(proxyA, transactionMapper.programProxy(programA));
+
+        Files.writeString(configFileA, generateIdentityConfig(programA, 2));
+        transactionMapper = awaitReload(watcher, mapper -> mapper.programProxy(programA) != proxyA);
+        assertNotNull(transactionMapper.programProxy(programA).lookupProxy(Discriminator.toDiscriminator(1)));
+        assertNull(proxyA.lookupProxy(Discriminator.toDiscriminator(1)));
+
+        // An invalid config retains the previous version, c.json is written after to await the reload.
+        final var proxyB = transactionMapper.programProxy(programB);
+        final var programC = randomKey(random);
+        Files.writeString(configFileB, "{\"program_id\":");
+        Files.writeString(configDirectory.resolve("c.json"), generateIdentityConfig(programC, 1));
+        transactionMapper = awaitReload(watcher, mapper -> mapper.programProxy(programC) != null);
+        assertSame(proxyB, transactionMapper.programProxy(programB));
+
+        Files.delete(configFileB);
+        awaitReload(watcher, mapper -> mapper.programProxy(programB) == null);
+      } finally {
+        watcher.close();
+        watchThread.join();
+      }
+    }
+  }
+
+  private static void assertEqualDiscriminators(final Discriminator expected, final Discriminator actual) {
+    if (expected == null) {
+      assertNull(actual);
+    } else {
+      assertArrayEquals(expected.data(), actual.data());
+    }
+  }
+
+  private static void assertEqualConfigs(final List<ProgramMapConfig> configs, final List<ProgramMapConfig> actualConfigs) {
+    assertEquals(configs.size(), actualConfigs.size());
+    for (int c = 0; c < configs.size(); ++c) {
+      final var expected = configs.get(c);
+      final var actual = actualConfigs.get(c);
+      assertEquals(expected.invokedProxyProgram(), actual.invokedProxyProgram());
+      assertEquals(Set.copyOf(expected.programs()), Set.copyOf(actual.programs()));
+      assertEquals(expected.discriminatorLength(), actual.discriminatorLength());
+      final var expectedIxConfigs = expected.ixMapConfigs();
+      final var actualIxConfigs = actual.ixMapConfigs();
+      assertEquals(expectedIxConfigs.size(), actualIxConfigs.size());
+      for (int i = 0; i < expectedIxConfigs.size(); ++i) {
+        final var expectedIxConfig = expectedIxConfigs.get(i);
+        final var actualIxConfig = actualIxConfigs.get(i);
+        assertEquals(expectedIxConfig.payerType(), actualIxConfig.payerType());
+        assertEquals(expectedIxConfig.cpiIxName(), actualIxConfig.cpiIxName());
+        assertEqualDiscriminators(expectedIxConfig.cpiDiscriminator(), actualIxConfig.cpiDiscriminator());
+        assertEquals(expectedIxConfig.proxyIxName(), actualIxConfig.proxyIxName());
+        assertEqualDiscriminators(expectedIxConfig.proxyDiscriminator(), actualIxConfig.proxyDiscriminator());
+        assertEquals(expectedIxConfig.dynamicAccounts(), actualIxConfig.dynamicAccounts());
+        assertEquals(expectedIxConfig.staticAccounts(), actualIxConfig.staticAccounts());
+        assertArrayEquals(expectedIxConfig.indexMap(), actualIxConfig.indexMap());
+      }
+    }
+  }
+
+  @Test
+  void testMappingSnapshot(@TempDir final Path snapshotDirectory) {
+    final var random = new Random(17);
+    final var payerConfig = String.format("""
+        {
+          "program_id": ["%s", "%s"],
+          "proxy_program_id": "%s",
+          "instructions": [
+            {
+              "src_ix_name": "payer",
+              "src_discriminator": [0, 1, 2, 3],
+              "dynamic_accounts": [
+                {"name": "glam_signer", "index": 1, "writable": true, "signer": true}
+              ],
+              "index_map": [0, -1, 2]
+            },
+            {
+              "src_ix_name": "remap",
+              "src_discriminator": [4, 5, 6, 7, 8, 9, 10, 11],
+              "dst_ix_name": "proxy_remap",
+              "dst_discriminator": [12, 13, 14, 15, 16, 17, 18, 19],
+              "dynamic_accounts": [
+                {"name": "glam_state", "index": 0, "writable": false, "signer": false},
+                {"name": "glam_signer", "index": 1, "writable": true, "signer": true}
+              ],
+              "static_accounts": [
+                {"account": "%s", "index": 2, "writable": true, "signer": false}
+              ],
+              "index_map": [-1, 3]
+            }
+          ]
+        }""", randomKey(random).toBase58(), randomKey(random).toBase58(), randomKey(random).toBase58(), randomKey(random).toBase58());
+
+    final var configs = new ArrayList<ProgramMapConfig>(NUM_CONFIGS + 2);
+    final var accountMetaCache = ConfigLoader.createAccountMetaPool();
+    final var indexedAccountMetaCache = ConfigLoader.createIndexedAccountMetaPool();
+    final var jsonConfigs = new ArrayList<byte[]>(NUM_CONFIGS + 2);
+    jsonConfigs.add(payerConfig.getBytes(StandardCharsets.UTF_8));
+    jsonConfigs.add(generateIdentityConfig(randomKey(random), 3).getBytes(StandardCharsets.UTF_8));
+    jsonConfigs.addAll(REMOTE_CONFIGS.values());
+    for (final byte[] json : jsonConfigs) {
+      configs.add(ProgramMapConfig.parseConfig(accountMetaCache, indexedAccountMetaCache, JsonIterator.parse(json)));
+    }
+
+    final var snapshotFile = snapshotDirectory.resolve("mappings.snapshot");
+    MappingSnapshot.write(snapshotFile, configs);
+    final var snapshotConfigs = MappingSnapshot.read(snapshotFile);
+    assertEqualConfigs(configs, snapshotConfigs);
+    assertInterned(snapshotConfigs.subList(2, snapshotConfigs.size()));
+    final var snapshotPrograms = new HashSet<PublicKey>();
+    int numPrograms = 0;
+    for (final var config : snapshotConfigs) {
+      for (final var program : config.programs()) {
+        snapshotPrograms.add(program.publicKey());
+        ++numPrograms;
+      }
+    }
+    assertEquals(numPrograms, snapshotPrograms.size());
+
+    final var invokedProxyProgram = AccountMeta.createInvoked(randomKey(random));
+    final Function<DynamicAccountConfig, DynamicAccount<AccountMeta[]>> dynamicAccountFactory = accountConfig -> switch (accountConfig.name()) {
+      case "glam_state" -> accountConfig.createRuntimeAccount(0);
+      case "glam_signer" -> accountConfig.createFeePayerAccount();
+      default -> throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+    };
+    final var transactionMapper = MappingSnapshot.loadMapper(snapshotFile, invokedProxyProgram, dynamicAccountFactory);
+    for (final var config : configs) {
+      for (final var program : config.programs()) {
+        assertNotNull(transactionMapper.programProxy(program.publicKey()));
+      }
+    }
+  }
+
+  @Test
+  void testLazyMapper(@TempDir final Path configDirectory) throws IOException, InterruptedException, ExecutionException {
+    for (final var entry : REMOTE_CONFIGS.entrySet()) {
+      Files.write(configDirectory.resolve(entry.getKey().substring(1)), entry.getValue());
+    }
+    final var random = new Random(18);
+    final var invalidProgram = randomKey(random);
+    Files.writeString(configDirectory.resolve("invalid.json"), String.format("""
+        {
+          "program_id": "%s",
+          "instructions": [{"src_ix_name": "invalid", "unknown_field": 1}]
+        }""", invalidProgram.toBase58()
+    ));
+
+    final Function<DynamicAccountConfig, DynamicAccount<Object>> dynamicAccountFactory = accountConfig -> {
+      throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+    };
+    final var invokedProxyProgram = AccountMeta.createInvoked(randomKey(random));
+    final var lazyMapper = new ConfigLoader(configDirectory, null).createLazyMapper(invokedProxyProgram, dynamicAccountFactory);
+
+    assertNull(lazyMapper.programProxy(randomKey(random)));
+    assertThrows(IllegalStateException.class, () -> lazyMapper.programProxy(invalidProgram));
+
+    // Concurrent first lookups all observe the same proxy.
+    final var program = PROGRAMS.iterator().next();
+    final int numThreads = 16;
+    final var executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final var start = new CountDownLatch(1);
+      final var futures = new ArrayList<Future<ProgramProxy<Object>>>(numThreads);
+      for (int t = 0; t < numThreads; ++t) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return lazyMapper.programProxy(program);
+        }));
+      }
+      start.countDown();
+      final var programProxy = futures.getFirst().get();
+      assertNotNull(programProxy);
+      for (final var future : futures) {
+        assertSame(programProxy, future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (final var remoteProgram : PROGRAMS) {
+      final var programProxy = lazyMapper.programProxy(remoteProgram);
+      assertNotNull(programProxy);
+      assertSame(programProxy, lazyMapper.programProxy(remoteProgram));
+      for (int i = 0; i < NUM_INSTRUCTIONS; ++i) {
+        assertNotNull(programProxy.lookupProxy(Discriminator.toDiscriminator(i)));
+      }
+    }
+  }
+
+  @Test
+  void testCompiledConfigCache(@TempDir final Path directory) throws IOException {
+    final var configDirectory = Files.createDirectory(directory.resolve("configs"));
+    final var cacheDirectory = directory.resolve("cache");
+    for (final var entry : REMOTE_CONFIGS.entrySet()) {
+      Files.write(configDirectory.resolve(entry.getKey().substring(1)), entry.getValue());
+    }
+    final var configLoader = new ConfigLoader(configDirectory, null);
+    final var executor = ForkJoinPool.commonPool();
+    final var expected = configLoader.loadLocalConfigs(executor);
+
+    final var coldCache = new CompiledConfigCache(cacheDirectory);
+    assertEqualConfigs(expected, configLoader.loadLocalConfigs(executor, coldCache));
+    assertEquals(0, coldCache.hits());
+    assertEquals(NUM_CONFIGS, coldCache.misses());
+
+    // A new cache instance, as after a restart, loads every unchanged config from its artifact.
+    final var warmCache = new CompiledConfigCache(cacheDirectory);
+    final var cachedConfigs = configLoader.loadLocalConfigs(executor, warmCache);
+    assertEqualConfigs(expected, cachedConfigs);
+    assertInterned(cachedConfigs);
+    assertEquals(NUM_CONFIGS, warmCache.hits());
+    assertEquals(0, warmCache.misses());
+
+    // Only the modified and the corrupted configs are rebuilt.
+    final var random = new Random(19);
+    final var modifiedProgram = randomKey(random);
+    final var modifiedFile = configDirectory.resolve("0.json");
+    Files.writeString(modifiedFile, generateIdentityConfig(modifiedProgram, 2));
+    Files.write(warmCache.artifactFile("1.json"), new byte[]{1, 2, 3});
+
+    final var modifiedCache = new CompiledConfigCache(cacheDirectory);
+    final var modifiedConfigs = configLoader.loadLocalConfigs(executor, modifiedCache);
+    assertEquals(NUM_CONFIGS - 2, modifiedCache.hits());
+    assertEquals(2, modifiedCache.misses());
+    final var modifiedConfig = ConfigLoader.parseConfigFile(
+        modifiedFile,
+        null,
+        ConfigLoader.createAccountMetaPool(),
+        ConfigLoader.createIndexedAccountMetaPool()
+    );
+    assertTrue(modifiedConfigs.stream().anyMatch(config -> config.programs().equals(modifiedConfig.programs())));
+
+    final var rebuiltCache = new CompiledConfigCache(cacheDirectory);
+    configLoader.loadLocalConfigs(executor, rebuiltCache);
+    assertEquals(NUM_CONFIGS, rebuiltCache.hits());
+
+    // An unwritable cache does not fail the load.
+    final var unwritableCache = new CompiledConfigCache(Files.createFile(directory.resolve("file")));
+    assertEqualConfigs(configLoader.loadLocalConfigs(executor), configLoader.loadLocalConfigs(executor, unwritableCache));
+    assertEquals(NUM_CONFIGS, unwritableCache.misses());
+
+    assertNotEquals(CompiledConfigCache.fingerprint(new byte[]{0}), CompiledConfigCache.fingerprint(new byte[]{0, 0}));
+    assertNotEquals(0, CompiledConfigCache.fingerprint(new byte[0]));
+  }
+}
@@ -7,18 +7,27 @@ import software.sava.core.accounts.meta.AccountMeta;
 import software.sava.core.encoding.ByteUtil;
 import software.sava.core.programs.Discriminator;
 import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
 import systems.comodal.jsoniter.FieldBufferPredicate;
 import systems.comodal.jsoniter.JsonIterator;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static systems.comodal.jsoniter.JsonIterator.fieldEquals;
+import static systems.glam.ix.proxy.fixtures.MappingCorpusGenerator.randomKey;
 
 final class GlamIxTests {
 
@@ -609,6 +618,634 @@ final class GlamIxTests {
     );
 
     assertEquals(expectedInstructions, Arrays.asList(mappedInstructions));
+
+    // Small chunks to force the arena to roll over.
+    final var arena = new MappingArena(16);
+    final var arenaMappedInstructions = new Instruction[srcInstructions.size() + 1];
+    assertEquals(4, txMapper.mapInstructions(feePayer, vaultAccounts, srcInstructions, arenaMappedInstructions, arena));
+    assertNull(arenaMappedInstructions[4]);
+    for (int i = 0; i < 4; ++i) {
+      final var expectedIx = expectedInstructions.get(i);
+      final var arenaMappedIx = arenaMappedInstructions[i];
+      assertEquals(expectedIx.programId().publicKey(), arenaMappedIx.programId().publicKey());
+      assertEquals(expectedIx.accounts(), arenaMappedIx.accounts());
+      assertArrayEquals(
+          Arrays.copyOfRange(expectedIx.data(), expectedIx.offset(), expectedIx.offset() + expectedIx.len()),
+          Arrays.copyOfRange(arenaMappedIx.data(), arenaMappedIx.offset(), arenaMappedIx.offset() + arenaMappedIx.len())
+      );
+    }
+
+    // Mappers implemented outside of this library fall back to mapping without the arena.
+    final TransactionMapper<GlamVaultAccounts> externalMapper = implementExternally(TransactionMapper.class, txMapper);
+    final var externalMappedInstructions = new Instruction[srcInstructions.size() + 1];
+    assertEquals(4, externalMapper.mapInstructions(feePayer, vaultAccounts, srcInstructions, externalMappedInstructions, arena));
+    assertEquals(expectedInstructions, Arrays.asList(externalMappedInstructions).subList(0, 4));
+    assertNull(externalMappedInstructions[4]);
+    assertEquals(expectedInstructions.get(3), externalMapper.mapInstruction(feePayer, vaultAccounts, srcInstructions.get(3), arena));
+  }
+
+  @Test
+  void testUnchangedTransactionIsNotRebuilt() {
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var syncNativeIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.tokenProgram(),
+        List.of(AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))),
+        new byte[]{17}
+    );
+    final var transaction = Transaction.createTx(feePayer, List.of(syncNativeIx));
+
+    final var stateAccount = PublicKey.fromBase58Encoded("5X1AWem3eTtXRFFh9PMSPZmZfcdExXHD25cJXnvxrzTy");
+    final var vaultAccount = PublicKey.fromBase58Encoded("4Uug1zHGvkYFuTGvS34Q5MnP7Bf36paXjtU6REUZnMhd");
+    final var vaultAccounts = GlamVaultAccounts.createAccounts(stateAccount, vaultAccount);
+
+    assertSame(transaction, txMapper.mapTransaction(vaultAccounts, transaction));
+    assertSame(transaction, txMapper.mapTransaction(feePayer, vaultAccounts, transaction));
+
+    final var otherFeePayer = AccountMeta.createFeePayer(vaultAccount);
+    assertNotSame(transaction, txMapper.mapTransaction(otherFeePayer, vaultAccounts, transaction));
+  }
+
+  /// Implements `type` as a caller outside of this library would, only the abstract methods delegate to `delegate`.
+  @SuppressWarnings("unchecked")
+  private static <T> T implementExternally(final Class<? super T> type, final Object delegate) {
+    return (T) Proxy.newProxyInstance(
+        type.getClassLoader(),
+        new Class<?>[]{type},
+        (proxy, method, args) -> {
+          if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+          }
+          try {
+            return method.invoke(delegate, args);
+          } catch (final InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+    );
+  }
+
+  @Test
+  void testTryMapInstruction() {
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var stateAccount = PublicKey.fromBase58Encoded("5X1AWem3eTtXRFFh9PMSPZmZfcdExXHD25cJXnvxrzTy");
+    final var vaultAccount = PublicKey.fromBase58Encoded("4Uug1zHGvkYFuTGvS34Q5MnP7Bf36paXjtU6REUZnMhd");
+    final var vaultAccounts = GlamVaultAccounts.createAccounts(stateAccount, vaultAccount);
+    final var driftProgram = PublicKey.fromBase58Encoded("dRiftyHA39MWEi3m9aunc5MzRF1JYuBsbn6VPcn33UH");
+    final var result = new MappingResult();
+
+    final var unsupportedIx = Instruction.createInstruction(driftProgram, List.of(), new byte[]{0, 0, 0, 0, 0, 0, 0, 0});
+    assertNull(txMapper.tryMapInstruction(feePayer, vaultAccounts, unsupportedIx, result));
+    assertEquals(MappingStatus.UNSUPPORTED_INSTRUCTION, result.status());
+    assertSame(unsupportedIx, result.instruction());
+    assertEquals("Unsupported instruction: AAAAAAAAAAA=", result.message());
+
+    final var missingAccountsIx = Instruction.createInstruction(
+        driftProgram,
+        List.of(AccountMeta.createRead(stateAccount)),
+        new byte[]{(byte) 242, 35, (byte) 198, (byte) 137, 82, (byte) 225, (byte) 242, (byte) 182}
+    );
+    final var syncNativeIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.tokenProgram(),
+        List.of(AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))),
+        new byte[]{17}
+    );
+    result.reset();
+    assertNull(txMapper.tryMapInstructions(feePayer, vaultAccounts, List.of(syncNativeIx, missingAccountsIx), result));
+    assertEquals(MappingStatus.MISSING_ACCOUNTS, result.status());
+    assertEquals(1, result.instructionIndex());
+    assertEquals("Expected at least 9 accounts, found 1", result.message());
+
+    // Mappers implemented outside of this library record the exception thrown by mapInstruction.
+    final TransactionMapper<GlamVaultAccounts> externalMapper = implementExternally(TransactionMapper.class, txMapper);
+    result.reset();
+    assertNull(externalMapper.tryMapInstruction(feePayer, vaultAccounts, unsupportedIx, result));
+    assertEquals(MappingStatus.MAPPING_FAILED, result.status());
+    assertSame(unsupportedIx, result.instruction());
+    assertInstanceOf(IllegalStateException.class, result.cause());
+    assertEquals(result.cause().getMessage(), result.message());
+
+    result.reset();
+    assertNull(externalMapper.tryMapInstructions(feePayer, vaultAccounts, List.of(syncNativeIx, unsupportedIx), result));
+    assertEquals(MappingStatus.MAPPING_FAILED, result.status());
+    assertEquals(1, result.instructionIndex());
+
+    result.reset();
+    final var transaction = Transaction.createTx(feePayer, List.of(syncNativeIx, unsupportedIx));
+    assertNull(externalMapper.tryMapTransaction(vaultAccounts, transaction, result));
+    assertEquals(MappingStatus.MAPPING_FAILED, result.status());
+    final var unchanged = Transaction.createTx(feePayer, List.of(syncNativeIx));
+    assertSame(unchanged, externalMapper.tryMapTransaction(vaultAccounts, unchanged, result));
+
+    result.reset();
+    assertTrue(result.ok());
+    assertNull(result.message());
+  }
+
+  @Test
+  void testRuntimeAccountSlots() {
+    final Function<DynamicAccountConfig, DynamicAccount<AccountMeta[]>> slotAccountFactory = accountConfig -> {
+      final boolean w = accountConfig.writable();
+      return switch (accountConfig.name()) {
+        case "glam_state" -> accountConfig.createRuntimeAccount(w ? 1 : 0);
+        case "glam_vault" -> accountConfig.createRuntimeAccount(w ? 3 : 2);
+        case "glam_signer" -> accountConfig.createFeePayerAccount();
+        case "cpi_program" -> accountConfig.createReadCpiProgram();
+        default -> throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+      };
+    };
+    final var slotMapper = createMapper(
+        Path.of("../glam/remapping"),
+        AccountMeta.createInvoked(GlamIxTests.INVOKED_PROGRAM),
+        slotAccountFactory
+    );
+
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var stateAccount = PublicKey.fromBase58Encoded("5X1AWem3eTtXRFFh9PMSPZmZfcdExXHD25cJXnvxrzTy");
+    final var vaultAccount = PublicKey.fromBase58Encoded("4Uug1zHGvkYFuTGvS34Q5MnP7Bf36paXjtU6REUZnMhd");
+    final var vaultAccounts = GlamVaultAccounts.createAccounts(stateAccount, vaultAccount);
+    final var slotAccounts = new AccountMeta[]{
+        vaultAccounts.readGlamState(),
+        vaultAccounts.writeGlamState(),
+        vaultAccounts.readGlamVault(),
+        vaultAccounts.writeGlamVault()
+    };
+
+    final var transferIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.systemProgram(),
+        List.of(
+            AccountMeta.createMeta(vaultAccount, true, true),
+            AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))
+        ),
+        new byte[]{2, 0, 0, 0, 0, (byte) 225, (byte) 245, 5, 0, 0, 0, 0}
+    );
+
+    final var slotMappedIx = slotMapper.mapInstruction(feePayer, slotAccounts, transferIx);
+    final var mappedIx = txMapper.mapInstruction(feePayer, vaultAccounts, transferIx);
+    assertEquals(mappedIx, slotMappedIx);
+    validateGlamAccounts(feePayer.publicKey(), vaultAccounts, transferIx, slotMappedIx);
+
+    // Negative slots would be mistaken for the fee payer or CPI program.
+    assertThrows(IllegalArgumentException.class, () -> new IndexedRuntimeAccount(0, -1));
+    assertThrows(IllegalArgumentException.class, () -> new IndexedRuntimeAccount(0, -2));
+  }
+
+  private static final long RANDOM_SEED = 7;
+
+  /// System program transfer of 0.1 SOL from `source`.
+  private static Instruction createTransferIx(final PublicKey source) {
+    return Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.systemProgram(),
+        List.of(
+            AccountMeta.createWrite(source),
+            AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))
+        ),
+        new byte[]{2, 0, 0, 0, 0, (byte) 225, (byte) 245, 5, 0, 0, 0, 0}
+    );
+  }
+
+  private static GlamVaultAccounts randomVaultAccounts(final Random random) {
+    return GlamVaultAccounts.createAccounts(randomKey(random), randomKey(random));
+  }
+
+  @Test
+  void testInvalidIndexes() {
+    final var invokedProgram = AccountMeta.createInvoked(INVOKED_PROGRAM);
+    final var staticAccount = new IndexedAccountMetaRecord(AccountMeta.createRead(SolanaAccounts.MAIN_NET.systemProgram()), 2);
+    final var cpiDiscriminator = Discriminator.toDiscriminator(0, 1, 2, 3, 4, 5, 6, 7);
+    final var proxyDiscriminator = Discriminator.toDiscriminator(8, 9, 10, 11, 12, 13, 14, 15);
+    final List<DynamicAccount<GlamVaultAccounts>> feePayer = List.of(new IndexedFeePayer<>(0));
+
+    // Static account placed over the source account mapped to index 2.
+    assertThrows(IllegalStateException.class, () -> IxProxy.createProxy(
+        invokedProgram, cpiDiscriminator, proxyDiscriminator, feePayer, List.of(staticAccount), new int[]{1, 2}
+    ));
+    // Dynamic account placed over the source account mapped to index 0.
+    assertThrows(IllegalStateException.class, () -> IxProxy.createProxy(
+        invokedProgram, cpiDiscriminator, proxyDiscriminator, feePayer, List.of(), new int[]{0}
+    ));
+    // Out of range of the 3 mapped accounts.
+    assertThrows(IllegalStateException.class, () -> IxProxy.createProxy(
+        invokedProgram, cpiDiscriminator, proxyDiscriminator, feePayer, List.of(), new int[]{1, 3}
+    ));
+    IxProxy.createProxy(invokedProgram, cpiDiscriminator, proxyDiscriminator, feePayer, List.of(staticAccount), new int[]{-1, 1});
+
+    // Dynamic accounts which are not resolved to a slot are validated from their config.
+    final var ixMapConfig = IxMapConfig.createConfig(
+        false, "cpi", cpiDiscriminator, "proxy", proxyDiscriminator,
+        List.of(new DynamicAccountConfig("glam_state", 1, false, false)),
+        List.of(),
+        new int[]{1}
+    );
+    assertThrows(IllegalStateException.class, () -> ixMapConfig.createProxy(invokedProgram, DYNAMIC_ACCOUNT_FACTORY));
+  }
+
+  @Test
+  void testMapTransactions() {
+    final var transferIx = createTransferIx(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var random = new Random(RANDOM_SEED);
+    final int numTransactions = 1_001;
+    final var vaultAccounts = new ArrayList<GlamVaultAccounts>(numTransactions);
+    final var transactions = new ArrayList<Transaction>(numTransactions);
+    for (int i = 0; i < numTransactions; ++i) {
+      final var feePayer = AccountMeta.createFeePayer(randomKey(random));
+      vaultAccounts.add(randomVaultAccounts(random));
+      transactions.add(Transaction.createTx(feePayer, List.of(transferIx)));
+    }
+
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      for (final int chunkSize : new int[]{1, 64, numTransactions, numTransactions << 1}) {
+        final var mapped = txMapper.mapTransactions(vaultAccounts, transactions, executor, chunkSize);
+        assertEquals(numTransactions, mapped.size());
+        for (int i = 0; i < numTransactions; ++i) {
+          final var expected = txMapper.mapTransaction(vaultAccounts.get(i), transactions.get(i));
+          assertEquals(expected.instructions(), mapped.get(i).instructions());
+          assertEquals(transactions.get(i).feePayer(), mapped.get(i).feePayer());
+        }
+      }
+
+      final var vaultsByTransaction = new IdentityHashMap<Transaction, GlamVaultAccounts>(numTransactions);
+      for (int i = 0; i < numTransactions; ++i) {
+        vaultsByTransaction.put(transactions.get(i), vaultAccounts.get(i));
+      }
+      final var streamMapped = txMapper.mapTransactions(vaultsByTransaction::get, transactions.parallelStream()).toList();
+      for (int i = 0; i < numTransactions; ++i) {
+        final var expected = txMapper.mapTransaction(vaultAccounts.get(i), transactions.get(i));
+        assertEquals(expected.instructions(), streamMapped.get(i).instructions());
+      }
+
+      final var invalidTransactions = new ArrayList<>(transactions);
+      invalidTransactions.set(7, Transaction.createTx(
+          transactions.get(7).feePayer(),
+          List.of(Instruction.createInstruction(transferIx.programId(), transferIx.accounts(), new byte[]{(byte) 255, 0, 0, 0}))
+      ));
+      assertThrows(IllegalStateException.class, () -> txMapper.mapTransactions(vaultAccounts, invalidTransactions, executor, 4));
+      assertThrows(IllegalArgumentException.class, () -> txMapper.mapTransactions(vaultAccounts.subList(1, numTransactions), transactions, executor, 4));
+
+      final var numSubmitted = new AtomicInteger();
+      final Executor rejectingExecutor = command -> {
+        if (numSubmitted.incrementAndGet() > 2) {
+          throw new RejectedExecutionException();
+        }
+        executor.execute(command);
+      };
+      assertThrows(RejectedExecutionException.class, () -> txMapper.mapTransactions(vaultAccounts, transactions, rejectingExecutor, 64));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testFanOutInstruction() {
+    final Function<DynamicAccountConfig, DynamicAccount<AccountMeta[]>> slotAccountFactory = accountConfig -> {
+      final boolean w = accountConfig.writable();
+      return switch (accountConfig.name()) {
+        case "glam_state" -> accountConfig.createRuntimeAccount(w ? 1 : 0);
+        case "glam_vault" -> accountConfig.createRuntimeAccount(w ? 3 : 2);
+        case "glam_signer" -> accountConfig.createFeePayerAccount();
+        case "cpi_program" -> accountConfig.createReadCpiProgram();
+        default -> throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+      };
+    };
+    final var slotMapper = createMapper(
+        Path.of("../glam/remapping"),
+        AccountMeta.createInvoked(GlamIxTests.INVOKED_PROGRAM),
+        slotAccountFactory
+    );
+
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var transferIx = createTransferIx(feePayer.publicKey());
+    final var random = new Random(RANDOM_SEED);
+    final int numVaults = 64;
+    final var vaultAccounts = new ArrayList<GlamVaultAccounts>(numVaults);
+    final var slotAccounts = new ArrayList<AccountMeta[]>(numVaults);
+    for (int i = 0; i < numVaults; ++i) {
+      final var vault = randomVaultAccounts(random);
+      vaultAccounts.add(vault);
+      slotAccounts.add(new AccountMeta[]{
+          vault.readGlamState(), vault.writeGlamState(), vault.readGlamVault(), vault.writeGlamVault()
+      });
+    }
+
+    final var fanOut = txMapper.fanOutInstruction(feePayer, vaultAccounts, transferIx);
+    final var slotFanOut = slotMapper.fanOutInstruction(feePayer, slotAccounts, transferIx);
+    assertEquals(numVaults, fanOut.length);
+    assertEquals(numVaults, slotFanOut.length);
+    for (int i = 0; i < numVaults; ++i) {
+      final var expected = txMapper.mapInstruction(feePayer, vaultAccounts.get(i), transferIx);
+      assertEquals(expected, fanOut[i]);
+      assertEquals(expected, slotFanOut[i]);
+      assertSame(fanOut[0].data(), fanOut[i].data());
+    }
+
+    final var syncNativeIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.tokenProgram(),
+        List.of(AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))),
+        new byte[]{17}
+    );
+    for (final var mapped : txMapper.fanOutInstruction(feePayer, vaultAccounts, syncNativeIx)) {
+      assertSame(syncNativeIx, mapped);
+    }
+    assertEquals(0, txMapper.fanOutInstruction(feePayer, List.of(), transferIx).length);
+
+    // External implementations inherit fan-out by mapping each individually.
+    final IxMapper<GlamVaultAccounts> externalMapper = implementExternally(IxMapper.class, txMapper);
+    assertArrayEquals(fanOut, externalMapper.fanOutInstruction(feePayer, vaultAccounts, transferIx));
+  }
+
+  @Test
+  void testBoundMapper() {
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var transferIx = createTransferIx(feePayer.publicKey());
+    final var syncNativeIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.tokenProgram(),
+        List.of(AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))),
+        new byte[]{17}
+    );
+    final var random = new Random(RANDOM_SEED);
+    final Function<PublicKey, GlamVaultAccounts> vaultAccountsFactory = vault -> GlamVaultAccounts.createAccounts(randomKey(random), vault);
+    final var vaults = new ArrayList<PublicKey>();
+    for (int i = 0; i < 8; ++i) {
+      vaults.add(randomKey(random));
+    }
+
+    final var cache = new BoundMapperCache<PublicKey, GlamVaultAccounts>(txMapper, 4);
+    for (final var vault : vaults) {
+      final var boundMapper = cache.bind(vault, feePayer, vaultAccountsFactory);
+      assertSame(boundMapper, cache.bind(vault, feePayer, vaultAccountsFactory));
+      final var vaultAccounts = boundMapper.runtimeAccounts();
+      for (int i = 0; i < 2; ++i) {
+        assertEquals(txMapper.mapInstruction(feePayer, vaultAccounts, transferIx), boundMapper.mapInstruction(transferIx));
+      }
+      assertSame(syncNativeIx, boundMapper.mapInstruction(syncNativeIx));
+
+      final var transaction = Transaction.createTx(feePayer, List.of(syncNativeIx, transferIx));
+      assertEquals(
+          txMapper.mapTransaction(feePayer, vaultAccounts, transaction).instructions(),
+          boundMapper.mapTransaction(transaction).instructions()
+      );
+      final var unchanged = Transaction.createTx(feePayer, List.of(syncNativeIx));
+      assertSame(unchanged, boundMapper.mapTransaction(unchanged));
+    }
+    assertEquals(4, cache.size());
+
+    // Least recently used vaults are evicted.
+    final var recent = cache.bind(vaults.get(4), feePayer, vaultAccountsFactory);
+    cache.bind(vaults.getFirst(), feePayer, vaultAccountsFactory);
+    assertEquals(4, cache.size());
+    assertSame(recent, cache.bind(vaults.get(4), feePayer, vaultAccountsFactory));
+    final var numBinds = new int[1];
+    cache.bind(vaults.get(5), feePayer, vault -> {
+      ++numBinds[0];
+      return vaultAccountsFactory.apply(vault);
+    });
+    assertEquals(1, numBinds[0]);
+
+    // A different fee payer re-binds the cached runtime accounts.
+    final var otherFeePayer = AccountMeta.createFeePayer(vaults.get(7));
+    final var boundMapper = cache.bind(vaults.get(4), otherFeePayer, _ -> fail());
+    assertSame(recent.runtimeAccounts(), boundMapper.runtimeAccounts());
+    assertEquals(otherFeePayer, boundMapper.feePayer());
+    assertEquals(
+        txMapper.mapInstruction(otherFeePayer, recent.runtimeAccounts(), transferIx),
+        boundMapper.mapInstruction(transferIx)
+    );
+
+    // Program proxies implemented outside of this package fall back to unbound mapping.
+    final var systemProgram = SolanaAccounts.MAIN_NET.systemProgram();
+    final var systemProgramProxy = txMapper.programProxy(systemProgram);
+    final ProgramProxy<GlamVaultAccounts> externalProxy = implementExternally(ProgramProxy.class, systemProgramProxy);
+    final var externalMapper = TransactionMapper.createMapper(INVOKED_PROGRAM, Map.of(systemProgram, externalProxy));
+    final var externalBoundMapper = externalMapper.bind(recent.runtimeAccounts(), feePayer);
+    assertEquals(
+        txMapper.mapInstruction(feePayer, recent.runtimeAccounts(), transferIx),
+        externalBoundMapper.mapInstruction(transferIx)
+    );
+
+    // Transaction mappers implemented outside of this package delegate each bound call.
+    final TransactionMapper<GlamVaultAccounts> externalTxMapper = implementExternally(TransactionMapper.class, txMapper);
+    final var delegatingMapper = externalTxMapper.bind(recent.runtimeAccounts(), feePayer);
+    assertSame(externalTxMapper, delegatingMapper.transactionMapper());
+    assertEquals(
+        txMapper.mapInstruction(feePayer, recent.runtimeAccounts(), transferIx),
+        delegatingMapper.mapInstruction(transferIx)
+    );
+    final var transaction = Transaction.createTx(feePayer, List.of(syncNativeIx, transferIx));
+    assertEquals(
+        txMapper.mapTransaction(feePayer, recent.runtimeAccounts(), transaction).instructions(),
+        delegatingMapper.mapTransaction(transaction).instructions()
+    );
+  }
+
+  @Test
+  void testMappedInstructionCache() {
+    final var feePayer = AccountMeta.createFeePayer(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var stateAccount = PublicKey.fromBase58Encoded("5X1AWem3eTtXRFFh9PMSPZmZfcdExXHD25cJXnvxrzTy");
+    final var vaultAccount = PublicKey.fromBase58Encoded("4Uug1zHGvkYFuTGvS34Q5MnP7Bf36paXjtU6REUZnMhd");
+    final var vaultAccounts = GlamVaultAccounts.createAccounts(stateAccount, vaultAccount);
+    final byte[] transferData = {2, 0, 0, 0, 0, (byte) 225, (byte) 245, 5, 0, 0, 0, 0};
+    final var accounts = List.of(
+        AccountMeta.createWrite(feePayer.publicKey()),
+        AccountMeta.createWrite(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"))
+    );
+    final var transferIx = Instruction.createInstruction(SolanaAccounts.MAIN_NET.systemProgram(), accounts, transferData);
+
+    final long[] nanoTime = {0};
+    final var cache = new MappedInstructionCache<>(txMapper, 2, Duration.ofSeconds(5), () -> nanoTime[0]);
+    final var mappedIx = cache.mapInstruction(feePayer, vaultAccounts, transferIx);
+    assertEquals(txMapper.mapInstruction(feePayer, vaultAccounts, transferIx), mappedIx);
+    assertEquals(0, cache.hits());
+    assertEquals(1, cache.misses());
+
+    // A structurally identical instruction with its own data array.
+    final var identicalIx = Instruction.createInstruction(
+        SolanaAccounts.MAIN_NET.systemProgram(), new ArrayList<>(accounts), transferData.clone()
+    );
+    assertSame(mappedIx, cache.mapInstruction(feePayer, vaultAccounts, identicalIx));
+    assertEquals(1, cache.hits());
+
+    // Keys hold a copy of the source data.
+    transferData[5] = 0;
+    assertNotSame(mappedIx, cache.mapInstruction(feePayer, vaultAccounts, transferIx));
+    transferData[5] = (byte) 225;
+    assertSame(mappedIx, cache.mapInstruction(feePayer, vaultAccounts, transferIx));
+
+    // Runtime accounts are compared by identity.
+    final var otherVaultAccounts = GlamVaultAccounts.createAccounts(stateAccount, vaultAccount);
+    assertNotSame(mappedIx, cache.mapInstruction(feePayer, otherVaultAccounts, transferIx));
+    assertEquals(2, cache.size());
+
+    // Entries expire after write.
+    nanoTime[0] = TimeUnit.SECONDS.toNanos(5);
+    final var remappedIx = cache.mapInstruction(feePayer, vaultAccounts, transferIx);
+    assertNotSame(mappedIx, remappedIx);
+    assertEquals(mappedIx, remappedIx);
+    assertSame(remappedIx, cache.mapInstruction(feePayer, vaultAccounts, transferIx));
+
+    // Instructions without a program proxy are neither cached nor counted.
+    final long numLookups = cache.hits() + cache.misses();
+    final var unmappedIx = Instruction.createInstruction(PublicKey.fromBase58Encoded("GmWA1scwdESnC7PxitTJ8nNkYL4qf5JkRskc8hZ7ZFwE"), accounts, transferData);
+    assertSame(unmappedIx, cache.mapInstruction(feePayer, vaultAccounts, unmappedIx));
+    assertEquals(numLookups, cache.hits() + cache.misses());
+    assertEquals(2, cache.size());
+
+    // Payer proxies build on the source data and accounts, cached instructions hold their own copies.
+    final var solanaAccounts = SolanaAccounts.MAIN_NET;
+    final var random = new Random(RANDOM_SEED);
+    final byte[] createIdempotentData = {1};
+    final var ataAccounts = new ArrayList<>(List.of(
+        AccountMeta.createWrite(randomKey(random)),
+        AccountMeta.createWrite(randomKey(random)),
+        AccountMeta.createRead(vaultAccount),
+        AccountMeta.createRead(randomKey(random)),
+        AccountMeta.createRead(solanaAccounts.systemProgram()),
+        AccountMeta.createRead(solanaAccounts.tokenProgram())
+    ));
+    final var createIdempotentIx = Instruction.createInstruction(
+        solanaAccounts.associatedTokenAccountProgram(), ataAccounts, createIdempotentData
+    );
+    final var expectedAtaIx = txMapper.mapInstruction(feePayer, vaultAccounts, createIdempotentIx);
+    assertSame(createIdempotentData, expectedAtaIx.data());
+    final var mappedAtaIx = cache.mapInstruction(feePayer, vaultAccounts, createIdempotentIx);
+    assertEquals(expectedAtaIx, mappedAtaIx);
+    createIdempotentData[0] = 0;
+    ataAccounts.set(1, AccountMeta.createWrite(randomKey(random)));
+    assertEquals(expectedAtaIx.accounts().subList(1, 6), mappedAtaIx.accounts().subList(1, 6));
+    assertEquals(1, mappedAtaIx.data()[mappedAtaIx.offset()]);
+
+    // Instructions returned as is by the payer proxy are copied as well.
+    createIdempotentData[0] = 1;
+    ataAccounts.set(0, feePayer);
+    final var payerIx = Instruction.createInstruction(
+        solanaAccounts.associatedTokenAccountProgram(), ataAccounts, createIdempotentData
+    );
+    assertSame(payerIx, txMapper.mapInstruction(feePayer, vaultAccounts, payerIx));
+    final var cachedPayerIx = cache.mapInstruction(feePayer, vaultAccounts, payerIx);
+    assertEquals(payerIx, cachedPayerIx);
+    createIdempotentData[0] = 0;
+    ataAccounts.set(2, AccountMeta.createRead(stateAccount));
+    assertEquals(1, cachedPayerIx.data()[cachedPayerIx.offset()]);
+    assertEquals(AccountMeta.createRead(vaultAccount), cachedPayerIx.accounts().get(2));
+  }
+
+  /// Requests one transaction at a time and holds on to each for a moment, so that the processor is back-pressured.
+  private static final class SlowSubscriber implements Flow.Subscriber<Transaction> {
+
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final CompletableFuture<List<Transaction>> done = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(final Transaction transaction) {
+      transactions.add(transaction);
+      if ((transactions.size() & 63) == 0) {
+        LockSupport.parkNanos(100_000);
+      }
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(transactions);
+    }
+  }
+
+  @Test
+  void testMappingProcessor() throws InterruptedException, ExecutionException, TimeoutException {
+    final var transferIx = createTransferIx(PublicKey.fromBase58Encoded("AZpNg57C34kSTvFGVdgJuZ7sYvDTU3EGPNwNhQGqNXkD"));
+    final var random = new Random(RANDOM_SEED);
+    final int numIntents = 1_000;
+    final var intents = new ArrayList<MappingProcessor.Intent<GlamVaultAccounts>>(numIntents);
+    for (int i = 0; i < numIntents; ++i) {
+      final var feePayer = AccountMeta.createFeePayer(randomKey(random));
+      final var vaultAccounts = randomVaultAccounts(random);
+      final var transaction = Transaction.createTx(feePayer, List.of(transferIx));
+      intents.add((i & 1) == 0
+          ? MappingProcessor.Intent.createIntent(vaultAccounts, transaction)
+          : new MappingProcessor.Intent<>(AccountMeta.createFeePayer(randomKey(random)), vaultAccounts, transaction));
+    }
+
+    final var executor = new ForkJoinPool(4);
+    try {
+      for (final int maxBatchSize : new int[]{1, 16}) {
+        final var processor = new MappingProcessor<>(txMapper, executor, 32, maxBatchSize);
+        final var subscriber = new SlowSubscriber();
+        processor.subscribe(subscriber);
+        try (final var source = new SubmissionPublisher<MappingProcessor.Intent<GlamVaultAccounts>>(executor, 16)) {
+          source.subscribe(processor);
+          intents.forEach(source::submit);
+        }
+        final var mapped = subscriber.done.get(30, TimeUnit.SECONDS);
+        assertEquals(numIntents, mapped.size());
+        for (int i = 0; i < numIntents; ++i) {
+          final var intent = intents.get(i);
+          final var mappedTransaction = mapped.get(i);
+          if (intent.feePayer() == null) {
+            final var expected = txMapper.mapTransaction(intent.runtimeAccounts(), intent.transaction());
+            assertEquals(expected.instructions(), mappedTransaction.instructions());
+            assertEquals(intent.transaction().feePayer(), mappedTransaction.feePayer());
+          } else {
+            final var expected = txMapper.mapTransaction(intent.feePayer(), intent.runtimeAccounts(), intent.transaction());
+            assertEquals(expected.instructions(), mappedTransaction.instructions());
+            assertEquals(intent.feePayer().publicKey(), mappedTransaction.feePayer().publicKey());
+          }
+        }
+      }
+
+      final var processor = new MappingProcessor<>(txMapper, executor, 32, 8);
+      final var subscriber = new SlowSubscriber();
+      processor.subscribe(subscriber);
+      final var source = new SubmissionPublisher<MappingProcessor.Intent<GlamVaultAccounts>>(executor, 16);
+      source.subscribe(processor);
+      final var intent = intents.getFirst();
+      final var invalidIx = Instruction.createInstruction(transferIx.programId(), transferIx.accounts(), new byte[]{(byte) 255, 0, 0, 0});
+      source.submit(intent);
+      source.submit(MappingProcessor.Intent.createIntent(
+          intent.runtimeAccounts(),
+          Transaction.createTx(intent.transaction().feePayer(), List.of(invalidIx))
+      ));
+      final var error = assertThrows(ExecutionException.class, () -> subscriber.done.get(30, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalStateException.class, error.getCause());
+      // Cancelling upstream removes the processor as a subscriber of the source.
+      for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30); source.hasSubscribers(); ) {
+        assertTrue(System.nanoTime() < deadline);
+        Thread.sleep(1);
+      }
+      source.close();
+
+      // Errors thrown by the mapper also close the processor rather than stalling the stage.
+      final var mapperError = new LinkageError("Mapper failure.");
+      final TransactionMapper<GlamVaultAccounts> failingMapper = (TransactionMapper<GlamVaultAccounts>) Proxy.newProxyInstance(
+          TransactionMapper.class.getClassLoader(),
+          new Class<?>[]{TransactionMapper.class},
+          (_, method, _) -> {
+            throw mapperError;
+          }
+      );
+      final var failingProcessor = new MappingProcessor<>(failingMapper, executor, 32, 8);
+      final var failingSubscriber = new SlowSubscriber();
+      failingProcessor.subscribe(failingSubscriber);
+      try (final var failingSource = new SubmissionPublisher<MappingProcessor.Intent<GlamVaultAccounts>>(executor, 16)) {
+        failingSource.subscribe(failingProcessor);
+        failingSource.submit(intent);
+        final var failure = assertThrows(ExecutionException.class, () -> failingSubscriber.done.get(30, TimeUnit.SECONDS));
+        assertSame(mapperError, failure.getCause());
+      }
+      assertTrue(failingProcessor.isClosed());
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
   private static List<Instruction> parseInstructions(final String ixData) {
@@ -0,0 +1,5 @@
+module systems.glam.ix_proxy.test.fixtures {
+  requires transitive systems.glam.ix_proxy;
+
+  exports systems.glam.ix.proxy.fixtures;
+}
@@ -0,0 +1,364 @@
+package systems.glam.ix.proxy.fixtures;
+
+import software.sava.core.accounts.PublicKey;
+import software.sava.core.accounts.meta.AccountMeta;
+import software.sava.core.tx.Instruction;
+import software.sava.core.tx.Transaction;
+import systems.glam.ix.proxy.DynamicAccount;
+import systems.glam.ix.proxy.DynamicAccountConfig;
+import systems.glam.ix.proxy.ProgramMapConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/// Generates synthetic [ProgramMapConfig] JSON at scale, along with random instruction and transaction streams which
+/// exercise the generated mappings.
+///
+/// Programs use either fixed 1, 4 or 8 byte discriminators, or a mix of 4 and 8 byte discriminators. Instructions are
+/// a mix of re-mapped instructions with GLAM style dynamic accounts and optional static accounts, payer instructions and
+/// identity instructions.
+///
+/// Dynamic accounts resolve against an `AccountMeta[]` of runtime accounts, see [#RUNTIME_ACCOUNT_SLOTS] and
+/// [#DYNAMIC_ACCOUNT_FACTORY].
+///
+/// ```shell
+/// java -cp ... systems.glam.ix.proxy.fixtures.MappingCorpusGenerator <directory> <numPrograms> <maxInstructionsPerProgram> [seed]
+/// ```
+public final class MappingCorpusGenerator {
+
+  /// Slot 0: read state, 1: write state, 2: read vault, 3: write vault
+  public static final int RUNTIME_ACCOUNT_SLOTS = 4;
+
+  public static final Function<DynamicAccountConfig, DynamicAccount<AccountMeta[]>> DYNAMIC_ACCOUNT_FACTORY = accountConfig -> {
+    final boolean w = accountConfig.writable();
+    return switch (accountConfig.name()) {
+      case "glam_state" -> accountConfig.createRuntimeAccount(w ? 1 : 0);
+      case "glam_vault" -> accountConfig.createRuntimeAccount(w ? 3 : 2);
+      case "glam_signer" -> accountConfig.createFeePayerAccount();
+      case "cpi_program" -> accountConfig.createReadCpiProgram();
+      default -> throw new IllegalStateException("Unknown dynamic account type: " + accountConfig.name());
+    };
+  };
+
+  private static final int NUM_DYNAMIC_ACCOUNTS = 4;
+
+  private final Random random;
+  private final int maxInstructionsPerProgram;
+  private final PublicKey[] staticAccounts;
+
+  public MappingCorpusGenerator(final long seed, final int maxInstructionsPerProgram) {
+    this.random = new Random(seed);
+    this.maxInstructionsPerProgram = maxInstructionsPerProgram;
+    // A small shared pool, mirroring commonly referenced static accounts such as sysvars and token programs.
+    this.staticAccounts = new PublicKey[32];
+    for (int i = 0; i < staticAccounts.length; ++i) {
+      staticAccounts[i] = randomKey(random);
+    }
+  }
+
+  public static PublicKey randomKey(final Random random) {
+    final byte[] key = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+    random.nextBytes(key);
+    return PublicKey.createPubKey(key);
+  }
+
+  private byte[][] generateDiscriminators(final int numInstructions) {
+    final var discriminators = new byte[numInstructions][];
+    final int mode = random.nextInt(10);
+    if (mode < 2) {
+      final var shuffled = new ArrayList<Integer>(256);
+      for (int i = 0; i < 256; ++i) {
+        shuffled.add(i);
+      }
+      Collections.shuffle(shuffled, random);
+      for (int i = 0; i < numInstructions; ++i) {
+        discriminators[i] = new byte[]{(byte) shuffled.get(i).intValue()};
+      }
+      return discriminators;
+    }
+    final var unique = HashSet.<String>newHashSet(numInstructions);
+    for (int i = 0; i < numInstructions; ) {
+      final byte[] discriminator;
+      if (mode < 8) {
+        discriminator = new byte[8];
+        random.nextBytes(discriminator);
+      } else if (mode < 9) {
+        discriminator = new byte[4];
+        random.nextBytes(discriminator);
+      } else {
+        // Mixed lengths, the leading bit keeps 4 byte discriminators from prefixing 8 byte discriminators.
+        discriminator = new byte[random.nextBoolean() ? 4 : 8];
+        random.nextBytes(discriminator);
+        discriminator[0] = discriminator.length == 4
+            ? (byte) (discriminator[0] & 0x7F)
+            : (byte) (discriminator[0] | 0x80);
+      }
+      if (unique.add(HexFormat.of().formatHex(discriminator))) {
+        discriminators[i++] = discriminator;
+      }
+    }
+    return discriminators;
+  }
+
+  private static void appendDiscriminator(final StringBuilder json, final String field, final byte[] discriminator) {
+    json.append('"').append(field).append("\":[");
+    for (int i = 0; i < discriminator.length; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append(discriminator[i] & 0xFF);
+    }
+    json.append(']');
+  }
+
+  private static void appendAccount(final StringBuilder json,
+                                    final String nameField,
+                                    final String name,
+                                    final int index,
+                                    final boolean writable,
+                                    final boolean signer) {
+    json.append("{\"").append(nameField).append("\":\"").append(name)
+        .append("\",\"index\":").append(index)
+        .append(",\"writable\":").append(writable)
+        .append(",\"signer\":").append(signer)
+        .append('}');
+  }
+
+  private static void appendIndexMap(final StringBuilder json, final int[] indexMap) {
+    json.append("\"index_map\":[");
+    for (int i = 0; i < indexMap.length; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append(indexMap[i]);
+    }
+    json.append(']');
+  }
+
+  private void appendRemapInstruction(final StringBuilder json) {
+    final byte[] proxyDiscriminator = new byte[8];
+    random.nextBytes(proxyDiscriminator);
+    appendDiscriminator(json, "dst_discriminator", proxyDiscriminator);
+
+    json.append(",\"dynamic_accounts\":[");
+    appendAccount(json, "name", "glam_state", 0, false, false);
+    json.append(',');
+    appendAccount(json, "name", "glam_vault", 1, true, false);
+    json.append(',');
+    appendAccount(json, "name", "glam_signer", 2, true, true);
+    json.append(',');
+    appendAccount(json, "name", "cpi_program", 3, false, false);
+
+    final int numStaticAccounts = random.nextInt(3);
+    json.append("],\"static_accounts\":[");
+    for (int i = 0; i < numStaticAccounts; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      final var account = staticAccounts[random.nextInt(staticAccounts.length)].toBase58();
+      appendAccount(json, "account", account, NUM_DYNAMIC_ACCOUNTS + i, false, false);
+    }
+    json.append("],");
+
+    final int numSrcAccounts = 2 + random.nextInt(15);
+    final int removed = random.nextInt(numSrcAccounts);
+    final int[] indexMap = new int[numSrcAccounts];
+    for (int s = 0, m = NUM_DYNAMIC_ACCOUNTS + numStaticAccounts; s < numSrcAccounts; ++s) {
+      indexMap[s] = s == removed ? -1 : m++;
+    }
+    appendIndexMap(json, indexMap);
+  }
+
+  private void appendPayerInstruction(final StringBuilder json) {
+    final int numSrcAccounts = 1 + random.nextInt(8);
+    final int payerIndex = random.nextInt(numSrcAccounts);
+    json.append("\"dynamic_accounts\":[");
+    appendAccount(json, "name", "glam_signer", payerIndex, true, true);
+    json.append("],");
+    final int[] indexMap = new int[numSrcAccounts];
+    for (int s = 0; s < numSrcAccounts; ++s) {
+      indexMap[s] = s == payerIndex ? -1 : s;
+    }
+    appendIndexMap(json, indexMap);
+  }
+
+  public String generateConfig(final PublicKey program) {
+    final int numInstructions = 1 + random.nextInt(maxInstructionsPerProgram);
+    final var discriminators = generateDiscriminators(Math.min(numInstructions, 256));
+    final var json = new StringBuilder(numInstructions << 9);
+    json.append("{\"program_id\":\"").append(program.toBase58()).append("\",\"instructions\":[");
+    for (int i = 0; i < discriminators.length; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      final byte[] discriminator = discriminators[i];
+      json.append("{\"src_ix_name\":\"ix_").append(i).append("\",");
+      appendDiscriminator(json, "src_discriminator", discriminator);
+      final int type = random.nextInt(10);
+      if (type < 7) {
+        json.append(",\"dst_ix_name\":\"proxy_ix_").append(i).append("\",");
+        appendRemapInstruction(json);
+      } else if (type < 9) {
+        json.append(',');
+        appendPayerInstruction(json);
+      }
+      json.append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  /// Identity instructions with sequential single byte discriminators, which require no dynamic account factory.
+  public static String generateIdentityConfig(final PublicKey program, final int numInstructions) {
+    final var json = new StringBuilder(numInstructions << 6);
+    json.append("{\"program_id\":\"").append(program.toBase58()).append("\",\"instructions\":[");
+    for (int i = 0; i < numInstructions; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"src_ix_name\":\"ix_").append(i).append("\",");
+      appendDiscriminator(json, "src_discriminator", new byte[]{(byte) i});
+      json.append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  /// Re-mapped instructions with sequential single byte discriminators, each with a single static account drawn from
+  /// `staticAccounts` and no dynamic accounts. Configs drawing from a shared pool exercise interning across configs.
+  public static String generateStaticConfig(final Random random,
+                                            final PublicKey program,
+                                            final PublicKey[] staticAccounts,
+                                            final int numInstructions) {
+    final var json = new StringBuilder(numInstructions << 8);
+    json.append("{\"program_id\":\"").append(program.toBase58()).append("\",\"instructions\":[");
+    for (int i = 0; i < numInstructions; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"src_ix_name\":\"ix_").append(i).append("\",");
+      appendDiscriminator(json, "src_discriminator", new byte[]{(byte) i});
+      json.append(",\"dst_ix_name\":\"proxy_ix_").append(i).append("\",");
+      appendDiscriminator(json, "dst_discriminator", new byte[]{(byte) i, 1, 2, 3, 4, 5, 6, 7});
+      json.append(",\"static_accounts\":[");
+      final var account = staticAccounts[random.nextInt(staticAccounts.length)].toBase58();
+      appendAccount(json, "account", account, 0, random.nextBoolean(), false);
+      json.append("],");
+      appendIndexMap(json, new int[]{1, 2});
+      json.append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  public Map<PublicKey, String> generateConfigs(final int numPrograms) {
+    final var configs = LinkedHashMap.<PublicKey, String>newLinkedHashMap(numPrograms);
+    while (configs.size() < numPrograms) {
+      final var program = randomKey(random);
+      configs.put(program, generateConfig(program));
+    }
+    return configs;
+  }
+
+  public void writeConfigs(final Path directory, final int numPrograms) {
+    try {
+      Files.createDirectories(directory);
+      for (final var entry : generateConfigs(numPrograms).entrySet()) {
+        final var configFile = directory.resolve(entry.getKey().toBase58() + ".json");
+        Files.writeString(configFile, entry.getValue(), StandardCharsets.UTF_8);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /// Random runtime accounts for a single vault, see [#RUNTIME_ACCOUNT_SLOTS].
+  public static AccountMeta[] generateRuntimeAccounts(final Random random) {
+    final var state = randomKey(random);
+    final var vault = randomKey(random);
+    return new AccountMeta[]{
+        AccountMeta.createRead(state),
+        AccountMeta.createWrite(state),
+        AccountMeta.createRead(vault),
+        AccountMeta.createWrite(vault)
+    };
+  }
+
+  /// Generates instructions which match the given configurations, along with a ratio of instructions for programs
+  /// which are not re-mapped.
+  public static Instruction[] generateInstructions(final Random random,
+                                                   final List<ProgramMapConfig> configs,
+                                                   final AccountMeta feePayer,
+                                                   final int numInstructions,
+                                                   final double unmappedRatio) {
+    final var unmappedPrograms = new PublicKey[8];
+    for (int i = 0; i < unmappedPrograms.length; ++i) {
+      unmappedPrograms[i] = randomKey(random);
+    }
+    final var instructions = new Instruction[numInstructions];
+    for (int i = 0; i < numInstructions; ++i) {
+      if (random.nextDouble() < unmappedRatio) {
+        final byte[] data = new byte[1 + random.nextInt(16)];
+        random.nextBytes(data);
+        instructions[i] = Instruction.createInstruction(
+            unmappedPrograms[random.nextInt(unmappedPrograms.length)],
+            List.of(AccountMeta.createWrite(randomKey(random))),
+            data
+        );
+        continue;
+      }
+      final var config = configs.get(random.nextInt(configs.size()));
+      final var programs = List.copyOf(config.programs());
+      final var program = programs.get(random.nextInt(programs.size())).publicKey();
+      final var ixMapConfigs = config.ixMapConfigs();
+      final var ixMapConfig = ixMapConfigs.get(random.nextInt(ixMapConfigs.size()));
+
+      final int numAccounts = Math.max(1, ixMapConfig.indexMap().length) + random.nextInt(3);
+      final var accounts = new AccountMeta[numAccounts];
+      for (int a = 0; a < numAccounts; ++a) {
+        accounts[a] = AccountMeta.createWrite(randomKey(random));
+      }
+      if (ixMapConfig.proxyDiscriminator() == null && !ixMapConfig.dynamicAccounts().isEmpty()) {
+        final int payerIndex = ixMapConfig.dynamicAccounts().getFirst().index();
+        accounts[payerIndex] = random.nextBoolean() ? feePayer : AccountMeta.createMeta(randomKey(random), true, true);
+      }
+
+      final byte[] discriminator = ixMapConfig.cpiDiscriminator().data();
+      final byte[] data = new byte[discriminator.length + random.nextInt(64)];
+      random.nextBytes(data);
+      System.arraycopy(discriminator, 0, data, 0, discriminator.length);
+      instructions[i] = Instruction.createInstruction(program, Arrays.asList(accounts), data);
+    }
+    return instructions;
+  }
+
+  /// Groups the generated instructions into transactions of 1 to `maxInstructions` instructions.
+  public static List<Transaction> generateTransactions(final Random random,
+                                                       final List<ProgramMapConfig> configs,
+                                                       final AccountMeta feePayer,
+                                                       final int numTransactions,
+                                                       final int maxInstructions,
+                                                       final double unmappedRatio) {
+    final var transactions = new ArrayList<Transaction>(numTransactions);
+    for (int i = 0; i < numTransactions; ++i) {
+      final var instructions = generateInstructions(random, configs, feePayer, 1 + random.nextInt(maxInstructions), unmappedRatio);
+      transactions.add(Transaction.createTx(feePayer, Arrays.asList(instructions)));
+    }
+    return transactions;
+  }
+
+  public static void main(final String[] args) {
+    if (args.length < 3) {
+      System.err.println("Usage: MappingCorpusGenerator <directory> <numPrograms> <maxInstructionsPerProgram> [seed]");
+      System.exit(1);
+    }
+    final var directory = Path.of(args[0]);
+    final int numPrograms = Integer.parseInt(args[1]);
+    final int maxInstructionsPerProgram = Integer.parseInt(args[2]);
+    final long seed = args.length > 3 ? Long.parseLong(args[3]) : 7;
+    new MappingCorpusGenerator(seed, maxInstructionsPerProgram).writeConfigs(directory, numPrograms);
+    System.out.printf("Wrote %d program mapping configs to %s.%n", numPrograms, directory.toAbsolutePath());
+  }
+}